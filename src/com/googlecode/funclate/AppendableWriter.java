@@ -0,0 +1,47 @@
+package com.googlecode.funclate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+public class AppendableWriter extends Writer {
+    private final Appendable appendable;
+
+    private AppendableWriter(Appendable appendable) {
+        this.appendable = appendable;
+    }
+
+    public static Writer writer(Appendable appendable) {
+        if (appendable instanceof Writer) return (Writer) appendable;
+        return new AppendableWriter(appendable);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        appendable.append(CharBuffer.wrap(buffer, offset, length));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        appendable.append((char) c);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        appendable.append(string, offset, offset + length);
+    }
+
+    @Override
+    public Writer append(CharSequence charSequence) throws IOException {
+        appendable.append(charSequence);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+}
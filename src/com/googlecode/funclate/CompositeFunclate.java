@@ -7,13 +7,15 @@ import com.googlecode.totallylazy.Triple;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.googlecode.funclate.RendererContainer.methods.noParent;
 
-public class CompositeFunclate implements Funclate {
+public class CompositeFunclate implements Funclate, StreamingRenderer<Object> {
     public static final String NO_NAME = "";
     protected final Map<String, MatchingRenderer> funclates = new HashMap<String, MatchingRenderer>();
     private final RendererContainer parent;
+    private final AtomicInteger version = new AtomicInteger();
 
     public CompositeFunclate(RendererContainer parent) {
         this.parent = parent;
@@ -25,21 +27,25 @@ public class CompositeFunclate implements Funclate {
 
     public <T> Funclate add(String name, Predicate<? super T> predicate, Renderer<? super T> renderer) {
         renderersFor(name).add(predicate, renderer);
+        version.incrementAndGet();
         return this;
     }
 
     public <T> Funclate add(String name, Predicate<? super T> predicate, Callable1<? super T, String> callable) {
         renderersFor(name).add(predicate, callable);
+        version.incrementAndGet();
         return this;
     }
 
     public <T> Funclate add(Predicate<? super T> predicate, Renderer<? super T> renderer) {
         renderersFor(NO_NAME).add(predicate, renderer);
+        version.incrementAndGet();
         return this;
     }
 
     public <T> Funclate add(Predicate<? super T> predicate, Callable1<? super T, String> renderer) {
         renderersFor(NO_NAME).add(predicate, renderer);
+        version.incrementAndGet();
         return this;
     }
 
@@ -47,6 +53,10 @@ public class CompositeFunclate implements Funclate {
         return get(NO_NAME).render(value);
     }
 
+    public <A extends Appendable> A render(Object value, A appendable) throws Exception {
+        return StreamingRenderer.methods.render(get(NO_NAME), value, appendable);
+    }
+
     public Renderer<Object> get(String name) {
         return renderersFor(name);
     }
@@ -64,7 +74,19 @@ public class CompositeFunclate implements Funclate {
     }
 
     protected void create(String normalisedName) {
-        funclates.put(normalisedName, new MatchingRenderer(parent.get(normalisedName)));
+        funclates.put(normalisedName, new MatchingRenderer(new Link(parent, normalisedName).link()));
+        version.incrementAndGet();
+    }
+
+    // Changes whenever this funclate or one of its parents changes what a name resolves to
+    public int version() {
+        return version.get() + version(parent);
+    }
+
+    // Containers that are not CompositeFunclates are treated as never changing
+    public static int version(RendererContainer container) {
+        if (container instanceof CompositeFunclate) return ((CompositeFunclate) container).version();
+        return 0;
     }
 
     public static String normalise(String name) {
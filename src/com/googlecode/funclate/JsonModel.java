@@ -0,0 +1,228 @@
+package com.googlecode.funclate;
+
+import com.googlecode.funclate.json.JsonIndex;
+import com.googlecode.funclate.json.JsonParser;
+import com.googlecode.funclate.json.NumberDecoding;
+import com.googlecode.funclate.json.Utf8Source;
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.Maps;
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.googlecode.totallylazy.Option.option;
+
+@SuppressWarnings("unchecked")
+public class JsonModel extends AbstractModel implements Slotted {
+    private static final Object UNDECODED = new Object();
+    private final JsonIndex index;
+    private final int token;
+    private final NumberDecoding numbers;
+    private final int[] values;
+    private final Object[] decoded;
+    private Shape shape;
+
+    private JsonModel(JsonIndex index, int token, NumberDecoding numbers) {
+        this.index = index;
+        this.token = token;
+        this.numbers = numbers;
+        this.values = values(index, token);
+        this.decoded = new Object[values.length];
+        Arrays.fill(decoded, UNDECODED);
+    }
+
+    public static JsonModel jsonModel(CharSequence json) {
+        return jsonModel(json, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public static JsonModel jsonModel(CharSequence json, NumberDecoding numbers) {
+        JsonIndex index = JsonIndex.index(json);
+        if (index.type(0) != '{') throw new IllegalArgumentException("Expected a JSON object");
+        return new JsonModel(index, 0, numbers);
+    }
+
+    public <T> T get(String key, Class<T> aClass) {
+        return this.get(key);
+    }
+
+    public <T> T get(String key) {
+        Object value = value(key);
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            return list.isEmpty() ? null : (T) list.get(0);
+        }
+        return (T) value;
+    }
+
+    public <T> Option<T> getOption(String key, Class<T> aClass) {
+        return getOption(key);
+    }
+
+    public <T> Option<T> getOption(String key) {
+        return option(this.<T>get(key));
+    }
+
+    public <T> List<T> getValues(String key, Class<T> aClass) {
+        return this.getValues(key);
+    }
+
+    public <T> List<T> getValues(String key) {
+        final Object value = value(key);
+        if (value == null) return new ArrayList<T>();
+        if (value instanceof List) return new ArrayList<T>((List<T>) value);
+        return new ArrayList<T>(Collections.singletonList((T) value));
+    }
+
+    public boolean contains(String key) {
+        return member(key) >= 0;
+    }
+
+    public Iterable<Pair<String, Object>> pairs() {
+        return Maps.pairs(fields());
+    }
+
+    public Set<Map.Entry<String, Object>> entries() {
+        return fields().entrySet();
+    }
+
+    public Map<String, Object> toMap() {
+        return Model.methods.toMap(this);
+    }
+
+    public Shape shape() {
+        if (shape == null) {
+            String[] keys = new String[values.length];
+            for (int ordinal = 0; ordinal < values.length; ordinal++) keys[ordinal] = index.string(values[ordinal] - 1);
+            shape = Shape.shape(keys);
+        }
+        return shape;
+    }
+
+    public Object slot(int slot) {
+        return field(slot);
+    }
+
+    public Model copy() {
+        return this;
+    }
+
+    public <T> Model add(String key, T value) {
+        return materialise().add(key, value);
+    }
+
+    public <T> Model set(String name, T value) {
+        return materialise().set(name, value);
+    }
+
+    public <T> Pair<Model, Option<T>> remove(String key, Class<T> aClass) {
+        return remove(key);
+    }
+
+    public <T> Pair<Model, Option<T>> remove(String key) {
+        return materialise().remove(key);
+    }
+
+    public Model map(Callable1<? super Object, ?> callable) {
+        return materialise().map(callable);
+    }
+
+    public Model merge(Model other) {
+        return Model.methods.merge(materialise(), other);
+    }
+
+    public <A extends Appendable> A toJson(A appendable) {
+        try {
+            if (index.json() instanceof Utf8Source) appendable.append(toString());
+            else appendable.append(index.json(), index.start(token), index.end(token));
+            return appendable;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return index.raw(token).toString();
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        return o instanceof JsonModel && fields().equals(((JsonModel) o).fields());
+    }
+
+    @Override
+    public final int hashCode() {
+        return fields().hashCode();
+    }
+
+    // Writes hand back a PersistentModel parsed from this subtree, the JSON itself is never changed
+    private Model materialise() {
+        return (Model) JsonParser.object(index.raw(token), PersistentModel.json, numbers);
+    }
+
+    private Map<String, Object> fields() {
+        Map<String, Object> fields = new LinkedHashMap<String, Object>();
+        for (int ordinal = 0; ordinal < values.length; ordinal++) {
+            fields.put(index.string(values[ordinal] - 1), field(ordinal));
+        }
+        return fields;
+    }
+
+    private Object value(String key) {
+        int ordinal = member(key);
+        return ordinal < 0 ? null : field(ordinal);
+    }
+
+    // Later duplicates win, the same as parsing into a map
+    private int member(String key) {
+        for (int ordinal = values.length - 1; ordinal >= 0; ordinal--) {
+            if (index.matches(values[ordinal] - 1, key)) return ordinal;
+        }
+        return -1;
+    }
+
+    // A key is a string token with no children, so each member's value is the token straight after it
+    private static int[] values(JsonIndex index, int token) {
+        int count = 0;
+        for (int key = index.firstChild(token); key >= 0; key = index.nextSibling(key + 1, token)) count++;
+        int[] values = new int[count];
+        count = 0;
+        for (int key = index.firstChild(token); key >= 0; key = index.nextSibling(key + 1, token)) values[count++] = key + 1;
+        return values;
+    }
+
+    private Object field(int ordinal) {
+        Object result = decoded[ordinal];
+        if (result == UNDECODED) {
+            result = decode(values[ordinal]);
+            decoded[ordinal] = result;
+        }
+        return result;
+    }
+
+    private Object decode(int token) {
+        switch (index.type(token)) {
+            case '{': return new JsonModel(index, token, numbers);
+            case '[':
+                List<Object> list = new ArrayList<Object>();
+                for (int element = index.firstChild(token); element >= 0; element = index.nextSibling(element, token)) {
+                    list.add(decode(element));
+                }
+                return Collections.unmodifiableList(list);
+            case '"': return index.string(token);
+            case 't': return Boolean.TRUE;
+            case 'f': return Boolean.FALSE;
+            case 'n': return null;
+            default: return index.number(token, numbers);
+        }
+    }
+}
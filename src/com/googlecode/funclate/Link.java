@@ -0,0 +1,54 @@
+package com.googlecode.funclate;
+
+public class Link implements StreamingRenderer<Object> {
+    private final RendererContainer container;
+    private final String name;
+    private volatile Resolved resolved;
+
+    public Link(RendererContainer container, String name) {
+        this.container = container;
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Link link() {
+        target();
+        return this;
+    }
+
+    public Renderer<Object> target() {
+        int version = CompositeFunclate.version(container);
+        Resolved current = resolved;
+        if (current == null || current.version != version) {
+            current = new Resolved(container.get(name), version);
+            resolved = current;
+        }
+        return current.renderer;
+    }
+
+    public String render(Object instance) throws Exception {
+        return target().render(instance);
+    }
+
+    public <A extends Appendable> A render(Object instance, A appendable) throws Exception {
+        return StreamingRenderer.methods.render(target(), instance, appendable);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static class Resolved {
+        private final Renderer<Object> renderer;
+        private final int version;
+
+        private Resolved(Renderer<Object> renderer, int version) {
+            this.renderer = renderer;
+            this.version = version;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.googlecode.funclate;
 
 import java.net.URI;
 
-public class LinkRenderer implements Renderer<URI> {
+public class LinkRenderer implements StreamingRenderer<URI> {
     public static Renderer<URI> toLink() {
         return new LinkRenderer();
     }
@@ -10,4 +10,10 @@ public class LinkRenderer implements Renderer<URI> {
     public String render(URI uri) throws Exception {
         return String.format("<a href=\"%1$s\">%1$s</a>", uri);
     }
+
+    public <A extends Appendable> A render(URI uri, A appendable) throws Exception {
+        String link = String.valueOf(uri);
+        appendable.append("<a href=\"").append(link).append("\">").append(link).append("</a>");
+        return appendable;
+    }
 }
\ No newline at end of file
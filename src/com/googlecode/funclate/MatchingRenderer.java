@@ -4,47 +4,53 @@ import com.googlecode.totallylazy.Callable1;
 import com.googlecode.totallylazy.Callables;
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Predicate;
-import com.googlecode.totallylazy.Predicates;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
 
-import static com.googlecode.totallylazy.Predicates.where;
-import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.funclate.Renderer.constructors.renderer;
 
-public class MatchingRenderer implements Renderer<Object>{
-    private final Deque<Pair<Predicate<Object>, Callable1<Object, String>>> pairs = new ArrayDeque<Pair<Predicate<Object>, Callable1<Object, String>>>();
-    private Callable1<Object, String> noMatchRenderer;
+public class MatchingRenderer implements StreamingRenderer<Object> {
+    private final Deque<Pair<Predicate<Object>, Renderer<Object>>> pairs = new ArrayDeque<Pair<Predicate<Object>, Renderer<Object>>>();
+    private Renderer<Object> noMatchRenderer;
 
     public MatchingRenderer() {
-        noMatchRenderer = Callables.asString();
+        noMatchRenderer = renderer(Callables.asString());
     }
 
     public MatchingRenderer(Renderer<Object> noMatchRenderer) {
-        this.noMatchRenderer = callable(noMatchRenderer);
+        this.noMatchRenderer = noMatchRenderer;
     }
 
     public MatchingRenderer parent(Renderer<Object> noMatchRenderer) {
-        this.noMatchRenderer = callable(noMatchRenderer);
+        this.noMatchRenderer = noMatchRenderer;
         return this;
     }
 
     public String render(Object value) throws Exception {
-        Predicate<Predicate<Object>> matches = Predicates.matches(value);
-        return sequence(pairs).find(where(Callables.<Predicate<Object>>first(), matches)).
-                map(Callables.<Callable1<Object, String>>second()).
-                getOrElse(noMatchRenderer).
-                call(value);
+        return rendererFor(value).render(value);
     }
 
+    public <A extends Appendable> A render(Object value, A appendable) throws Exception {
+        return StreamingRenderer.methods.render(rendererFor(value), value, appendable);
+    }
+
+    private Renderer<Object> rendererFor(Object value) {
+        for (Pair<Predicate<Object>, Renderer<Object>> pair : pairs) {
+            if (pair.first().matches(value)) return pair.second();
+        }
+        return noMatchRenderer;
+    }
+
+    @SuppressWarnings("unchecked")
     public <T, R> MatchingRenderer add(Predicate<? super T> predicate, Renderer<? super T> renderer) {
-        return add(predicate, callable(renderer));
+        pairs.addFirst(Pair.<Predicate<Object>, Renderer<Object>>pair((Predicate<Object>) predicate, (Renderer<Object>) renderer));
+        return this;
     }
 
     @SuppressWarnings("unchecked")
     public <T, R> MatchingRenderer add(Predicate<? super T> predicate, Callable1<? super T, String> callable) {
-        pairs.addFirst(Pair.<Predicate<Object>, Callable1<Object, String>>pair((Predicate<Object>) predicate, (Callable1<Object, String>) callable));
-        return this;
+        return add(predicate, renderer((Callable1<Object, String>) callable));
     }
 
     public static <T> Callable1<T, String> callable(final Renderer<T> renderer) {
@@ -1,6 +1,7 @@
 package com.googlecode.funclate;
 
-import com.googlecode.funclate.json.Json;
+import com.googlecode.funclate.json.JsonParser;
+import com.googlecode.funclate.json.NumberDecoding;
 import com.googlecode.totallylazy.*;
 import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.collections.PersistentMap;
@@ -70,6 +71,10 @@ public interface Model {
             return instance.create(json);
         }
 
+        public static Model parse(String json, NumberDecoding numbers) {
+            return methods.create(instance, json, numbers);
+        }
+
         public static final Function1<String, Model> parse = new Function1<String, Model>() {
             @Override
             public Model call(String json) throws Exception {
@@ -104,7 +109,7 @@ public interface Model {
         }
 
         public Model create(String json) {
-            return model(Json.parse(json));
+            return (Model) JsonParser.object(json, MutableModel.json);
         }
 
         public Iterable<?> toList(Iterable<?> map) {
@@ -135,6 +140,10 @@ public interface Model {
             return instance.create(json);
         }
 
+        public static Model parse(String json, NumberDecoding numbers) {
+            return methods.create(instance, json, numbers);
+        }
+
         public static final Function1<String, Model> parse = new Function1<String, Model>() {
             @Override
             public Model call(String json) throws Exception {
@@ -174,7 +183,7 @@ public interface Model {
         }
 
         public Model create(String json) {
-            return model(Json.parse(json));
+            return (Model) JsonParser.object(json, PersistentModel.json);
         }
 
         @Override
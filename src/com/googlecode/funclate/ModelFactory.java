@@ -1,5 +1,8 @@
 package com.googlecode.funclate;
 
+import com.googlecode.funclate.json.JsonBuilder;
+import com.googlecode.funclate.json.JsonParser;
+import com.googlecode.funclate.json.NumberDecoding;
 import com.googlecode.totallylazy.*;
 import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.collections.PersistentMap;
@@ -29,6 +32,20 @@ public interface ModelFactory {
     Iterable<?> toList(Iterable<?> map);
 
     class methods {
+        // The built-in factories build their models as they parse, any other factory is handed the parsed map
+        public static Model create(ModelFactory factory, CharSequence json, NumberDecoding numbers) {
+            JsonBuilder<?, ?> builder = jsonBuilder(factory);
+            if (builder != null) return (Model) JsonParser.object(json, builder, numbers);
+            return factory.create(Unchecked.<Map<String, Object>>cast(JsonParser.object(json, JsonParser.maps, numbers)));
+        }
+
+        // Null for factories other than the built-in ones
+        public static JsonBuilder<?, ?> jsonBuilder(ModelFactory factory) {
+            if (factory instanceof Model.mutable) return MutableModel.json;
+            if (factory instanceof Model.persistent) return PersistentModel.json;
+            return null;
+        }
+
         public static Model fromProperties(final ModelFactory factory, Properties properties) {
             Sequence<Pair<String, String>> map = Sequences.sequence(properties.entrySet()).map(Maps.entryToPair()).unsafeCast();
 
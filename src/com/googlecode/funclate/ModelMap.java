@@ -0,0 +1,98 @@
+package com.googlecode.funclate;
+
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.collections.PersistentList;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A read only Model.methods.toMap that only converts the values that get looked at
+class ModelMap extends AbstractMap<String, Object> implements Slotted {
+    private final Slotted model;
+    private final Shape shape;
+    private final Object[] values;
+    private final boolean[] converted;
+    private Map<String, Object> entries;
+
+    ModelMap(Model model) {
+        if (model instanceof Slotted) {
+            this.model = (Slotted) model;
+            this.shape = this.model.shape();
+            this.values = new Object[shape.size()];
+        } else {
+            List<String> keys = new ArrayList<String>();
+            List<Object> values = new ArrayList<Object>();
+            for (Pair<String, Object> pair : model.pairs()) {
+                keys.add(pair.first());
+                values.add(pair.second());
+            }
+            this.model = null;
+            this.shape = Shape.shape(keys);
+            this.values = values.toArray();
+        }
+        this.converted = new boolean[values.length];
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    public Object slot(int slot) {
+        if (!converted[slot]) {
+            values[slot] = value(model == null ? values[slot] : model.slot(slot));
+            converted[slot] = true;
+        }
+        return values[slot];
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = key instanceof String ? shape.slot((String) key) : -1;
+        return slot < 0 ? null : slot(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && shape.slot((String) key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return entries().size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return entries().entrySet();
+    }
+
+    private Map<String, Object> entries() {
+        if (entries == null) {
+            Map<String, Object> result = new LinkedHashMap<String, Object>();
+            for (int slot = 0; slot < shape.size(); slot++) result.put(shape.key(slot), slot(slot));
+            entries = Collections.unmodifiableMap(result);
+        }
+        return entries;
+    }
+
+    private static Object value(Object value) {
+        if (value instanceof Model) return new ModelMap((Model) value);
+        if (value instanceof PersistentList) {
+            List<Object> result = new ArrayList<Object>();
+            for (Object item : (PersistentList<?>) value) result.add(value(item));
+            Collections.reverse(result);
+            return result;
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<Object>();
+            for (Object item : (List<?>) value) result.add(value(item));
+            return result;
+        }
+        return value;
+    }
+}
@@ -1,10 +1,12 @@
 package com.googlecode.funclate;
 
+import com.googlecode.funclate.json.JsonBuilder;
 import com.googlecode.totallylazy.*;
 import com.googlecode.totallylazy.annotations.multimethod;
 import com.googlecode.totallylazy.collections.PersistentList;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,8 +17,10 @@ import static com.googlecode.totallylazy.Option.option;
 import static com.googlecode.totallylazy.Sequences.sequence;
 
 @SuppressWarnings("unchecked")
-public class MutableModel extends AbstractModel {
+public class MutableModel extends AbstractModel implements Slotted {
     private final Map<String, Object> values;
+    // Dropped whenever a key is added or removed and worked out again the next time a template asks for it
+    private Shape shape;
 
     private MutableModel(Map<String, Object> values) {
         this.values = values;
@@ -26,11 +30,40 @@ public class MutableModel extends AbstractModel {
         return new MutableModel(Maps.map(values));
     }
 
+    static final JsonBuilder<Map<String, Object>, List<Object>> json = new JsonBuilder<Map<String, Object>, List<Object>>() {
+        public Map<String, Object> startObject() {
+            return new LinkedHashMap<String, Object>();
+        }
+
+        public Map<String, Object> field(Map<String, Object> object, String key, Object value) {
+            object.put(key, value);
+            return object;
+        }
+
+        public Object endObject(Map<String, Object> object) {
+            return new MutableModel(object);
+        }
+
+        public List<Object> startArray() {
+            return new ArrayList<Object>();
+        }
+
+        public List<Object> element(List<Object> array, Object value) {
+            array.add(value);
+            return array;
+        }
+
+        public Object endArray(List<Object> array) {
+            return array;
+        }
+    };
+
     public <T> Model add(String key, T rawValue) {
         Object value = lift(rawValue);
 
         if (!contains(key)) {
             values.put(key, value);
+            shape = null;
             return this;
         }
         List list = getValues(key, value.getClass());
@@ -50,6 +83,7 @@ public class MutableModel extends AbstractModel {
     }
 
     public <T> Model set(String name, T value) {
+        if (!contains(name)) shape = null;
         values.put(name, value);
         return this;
     }
@@ -59,6 +93,7 @@ public class MutableModel extends AbstractModel {
     }
 
     public <T> Pair<Model, Option<T>> remove(String key) {
+        if (contains(key)) shape = null;
         return Pair.<Model, Option<T>>pair(this, Option.<T>option((T) values.remove(key)));
     }
 
@@ -112,6 +147,15 @@ public class MutableModel extends AbstractModel {
         return (T) values.get(key);
     }
 
+    public Shape shape() {
+        if (shape == null) shape = Shape.shape(values.keySet());
+        return shape;
+    }
+
+    public Object slot(int slot) {
+        return values.get(shape().key(slot));
+    }
+
     public Set<Map.Entry<String, Object>> entries() {
         return values.entrySet();
     }
@@ -127,7 +171,7 @@ public class MutableModel extends AbstractModel {
 
     @Override
     public String toString() {
-        return toJson(this.toMap());
+        return toJson(this);
     }
 
     @Override
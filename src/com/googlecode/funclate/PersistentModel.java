@@ -1,10 +1,12 @@
 package com.googlecode.funclate;
 
+import com.googlecode.funclate.json.JsonBuilder;
 import com.googlecode.totallylazy.*;
 import com.googlecode.totallylazy.annotations.multimethod;
 import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.collections.PersistentMap;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,17 +20,54 @@ import static com.googlecode.totallylazy.collections.ListMap.listMap;
 import static com.googlecode.totallylazy.collections.PersistentList.constructors.*;
 import static com.googlecode.totallylazy.collections.PersistentSortedMap.constructors.sortedMap;
 
-public class PersistentModel extends AbstractModel {
+public class PersistentModel extends AbstractModel implements Slotted {
     private final PersistentMap<String, Object> values;
+    // Worked out on first use and handed on to models made from this one with the same keys. A plain field is
+    // enough because a Shape is immutable and any thread that races just interns the same one
+    private Shape shape;
 
     private PersistentModel(PersistentMap<String, Object> values) {
+        this(values, null);
+    }
+
+    private PersistentModel(PersistentMap<String, Object> values, Shape shape) {
         this.values = values;
+        this.shape = shape;
     }
 
     static PersistentModel model(Iterable<? extends Pair<String, ? extends Object>> values) {
         return new PersistentModel(sortedMap(Unchecked.<Iterable<Pair<String, Object>>>cast(values)));
     }
 
+    // Members are gathered and handed to the sorted map in one batch, and array elements are
+    // consed so they come out newest first, exactly as ModelFactory.methods.convert would leave them
+    static final JsonBuilder<List<Pair<String, Object>>, PersistentList<Object>> json = new JsonBuilder<List<Pair<String, Object>>, PersistentList<Object>>() {
+        public List<Pair<String, Object>> startObject() {
+            return new ArrayList<Pair<String, Object>>();
+        }
+
+        public List<Pair<String, Object>> field(List<Pair<String, Object>> object, String key, Object value) {
+            object.add(Pair.pair(key, value));
+            return object;
+        }
+
+        public Object endObject(List<Pair<String, Object>> object) {
+            return model(object);
+        }
+
+        public PersistentList<Object> startArray() {
+            return PersistentList.constructors.empty();
+        }
+
+        public PersistentList<Object> element(PersistentList<Object> array, Object value) {
+            return array.cons(value);
+        }
+
+        public Object endArray(PersistentList<Object> array) {
+            return array;
+        }
+    };
+
     public <T> Model add(String key, T rawValue) {
         Object value = lift(rawValue);
 
@@ -40,7 +79,7 @@ public class PersistentModel extends AbstractModel {
         } else {
             existingValues = existingValues.cons(Unchecked.<T>cast(value));
         }
-        return new PersistentModel(values.insert(key, existingValues));
+        return new PersistentModel(values.insert(key, existingValues), shape);
     }
 
     private Object lift(Object value) {
@@ -87,7 +126,7 @@ public class PersistentModel extends AbstractModel {
     }
 
     public <T> Model set(String name, T value) {
-        return new PersistentModel(values.insert(name, value));
+        return new PersistentModel(values.insert(name, value), contains(name) ? shape : null);
     }
 
     public <T> Pair<Model, Option<T>> remove(String key, Class<T> aClass) {
@@ -99,7 +138,7 @@ public class PersistentModel extends AbstractModel {
     }
 
     public PersistentModel map(Callable1<? super Object, ?> callable) {
-        return new PersistentModel(values.map(callable));
+        return new PersistentModel(values.map(callable), shape);
     }
 
     @Override
@@ -119,6 +158,24 @@ public class PersistentModel extends AbstractModel {
         return Model.methods.toMap(this);
     }
 
+    public PersistentMap<String, Object> toPersistentMap() {
+        return values;
+    }
+
+    public Shape shape() {
+        if (shape == null) {
+            List<String> keys = new ArrayList<String>();
+            for (Pair<String, Object> pair : values) keys.add(pair.first());
+            shape = Shape.shape(keys);
+        }
+        return shape;
+    }
+
+    // The stored value, so repeated values are still newest first as they are for toPersistentMap
+    public Object slot(int slot) {
+        return values.lookup(shape().key(slot)).getOrNull();
+    }
+
     public Set<Map.Entry<String, Object>> entries() {
         return listMap(pairs()).entrySet();
     }
@@ -130,7 +187,7 @@ public class PersistentModel extends AbstractModel {
 
     @Override
     public String toString() {
-        return toJson(this.toMap());
+        return toJson(this);
     }
 
     @Override
@@ -9,10 +9,15 @@ public interface RendererContainer {
         public static RendererContainer noParent() {
             return new RendererContainer() {
                 public Renderer<Object> get(String name) {
-                    return new Renderer<Object>() {
+                    return new StreamingRenderer<Object>() {
                         public String render(Object instance) throws Exception {
                             return Strings.asString(instance);
                         }
+
+                        public <A extends Appendable> A render(Object instance, A appendable) throws Exception {
+                            appendable.append(Strings.asString(instance));
+                            return appendable;
+                        }
                     };
                 }
             };
@@ -0,0 +1,67 @@
+package com.googlecode.funclate;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+public final class Shape {
+    private static final Map<Shape, WeakReference<Shape>> shapes = new WeakHashMap<Shape, WeakReference<Shape>>();
+    private final String[] keys;
+    private final int hashCode;
+
+    private Shape(String[] keys) {
+        this.keys = keys;
+        this.hashCode = Arrays.hashCode(keys);
+    }
+
+    // Models with the same keys in the same order share one Shape so templates can compare them by identity.
+    // The table only holds shapes weakly, so one that no model or template uses any more is collected and dynamic
+    // key sets never crowd out the rest. Models work their shape out once and keep it, so this is not per render
+    static Shape shape(String... keys) {
+        Shape shape = new Shape(keys);
+        synchronized (shapes) {
+            WeakReference<Shape> existing = shapes.get(shape);
+            Shape interned = existing == null ? null : existing.get();
+            if (interned != null) return interned;
+            shapes.put(shape, new WeakReference<Shape>(shape));
+            return shape;
+        }
+    }
+
+    static Shape shape(Collection<String> keys) {
+        return shape(keys.toArray(new String[keys.size()]));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int slot) {
+        return keys[slot];
+    }
+
+    // Later duplicates win, the same as Model.methods.toMap
+    public int slot(String key) {
+        for (int slot = keys.length - 1; slot >= 0; slot--) {
+            if (keys[slot].equals(key)) return slot;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Shape && hashCode == ((Shape) other).hashCode && Arrays.equals(keys, ((Shape) other).keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+}
@@ -0,0 +1,7 @@
+package com.googlecode.funclate;
+
+public interface Slotted {
+    Shape shape();
+
+    Object slot(int slot);
+}
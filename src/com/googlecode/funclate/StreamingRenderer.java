@@ -0,0 +1,18 @@
+package com.googlecode.funclate;
+
+public interface StreamingRenderer<T> extends Renderer<T> {
+    <A extends Appendable> A render(T instance, A appendable) throws Exception;
+
+    class methods {
+        @SuppressWarnings("unchecked")
+        public static <T, A extends Appendable> A render(Renderer<? super T> renderer, T instance, A appendable) throws Exception {
+            if (renderer instanceof StreamingRenderer) return ((StreamingRenderer<T>) renderer).render(instance, appendable);
+            appendable.append(renderer.render(instance));
+            return appendable;
+        }
+
+        public static <T> String render(StreamingRenderer<T> renderer, T instance) throws Exception {
+            return renderer.render(instance, new StringBuilder()).toString();
+        }
+    }
+}
@@ -17,7 +17,7 @@ public class StringFunclate extends CompositeFunclate {
 
     public StringFunclate(String template, RendererContainer parent) {
         super(parent);
-        add(instanceOf(Map.class), new Grammar(this).parse(template));
+        add(instanceOf(Map.class), new Grammar(this).parse(template).compile());
         add(instanceOf(Model.class), new ModelRenderer(this));
 //        add("if", instanceOf(Map.class), ifElse());
     }
@@ -31,7 +31,7 @@ public class StringFunclate extends CompositeFunclate {
         };
     }
 
-    public static class ModelRenderer implements Renderer<Model> {
+    public static class ModelRenderer implements StreamingRenderer<Model> {
         private final Funclate funclate;
 
         public ModelRenderer(Funclate funclate) {
@@ -39,7 +39,11 @@ public class StringFunclate extends CompositeFunclate {
         }
 
         public String render(Model model) throws Exception {
-            return funclate.render(model.toMap());
+            return funclate.render(new ModelMap(model));
+        }
+
+        public <A extends Appendable> A render(Model model, A appendable) throws Exception {
+            return StreamingRenderer.methods.render(funclate, new ModelMap(model), appendable);
         }
     }
 
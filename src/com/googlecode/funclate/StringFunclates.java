@@ -1,31 +1,49 @@
 package com.googlecode.funclate;
 
-import com.googlecode.totallylazy.LazyException;
-import com.googlecode.totallylazy.Strings;
 import com.googlecode.totallylazy.Uri;
 
-import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.funclate.TemplateWatcher.DEFAULT_DEBOUNCE_MILLISECONDS;
+import static com.googlecode.funclate.TemplateWatcher.directory;
 
 public class StringFunclates extends CompositeFunclate{
-    private final Uri baseUrl;
+    private final URL baseUrl;
+    private final TemplateCache templates;
 
     public StringFunclates(URL baseUrl) {
-        this.baseUrl = Uri.uri(baseUrl);
+        this.baseUrl = baseUrl;
+        this.templates = new TemplateCache(Uri.uri(baseUrl), this);
         create(NO_NAME);
     }
 
+    public TemplateCache templates() {
+        return templates;
+    }
+
+    @Override
+    public int version() {
+        return super.version() + templates.version();
+    }
+
+    public TemplateWatcher reloadOnChange() {
+        return reloadOnChange(DEFAULT_DEBOUNCE_MILLISECONDS, TimeUnit.MILLISECONDS);
+    }
+
+    public TemplateWatcher reloadOnChange(long debounce, TimeUnit unit) {
+        return TemplateWatcher.watch(directory(baseUrl), ".fun", new TemplateWatcher.Reloadable() {
+            public boolean reload(String name) throws Exception {
+                return templates.reload(name);
+            }
+        }, debounce, unit);
+    }
+
     @Override
     public Renderer<Object> get(String name) {
         if(contains(name)){
             return super.get(name);
         }
-        try {
-            Uri templateUri = baseUrl.mergePath(String.format("%s.fun", name));
-            String template = Strings.toString(templateUri.toURL().openStream());
-            return new StringFunclate(template, this);
-        } catch (IOException e) {
-            throw LazyException.lazyException(e);
-        }
+        return templates.get(name);
     }
 }
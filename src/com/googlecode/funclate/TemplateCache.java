@@ -0,0 +1,146 @@
+package com.googlecode.funclate;
+
+import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.Strings;
+import com.googlecode.totallylazy.Uri;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+public class TemplateCache {
+    private final ConcurrentMap<String, FutureTask<Renderer<Object>>> templates = new ConcurrentHashMap<String, FutureTask<Renderer<Object>>>();
+    private final AtomicInteger version = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong loadTime = new AtomicLong();
+    private final AtomicLong parseTime = new AtomicLong();
+    private final Uri baseUrl;
+    private final RendererContainer parent;
+
+    public TemplateCache(Uri baseUrl, RendererContainer parent) {
+        this.baseUrl = baseUrl;
+        this.parent = parent;
+    }
+
+    // Missing templates stay cached as failures until invalidated, any other failure is retried on the next get
+    public Renderer<Object> get(String name) {
+        FutureTask<Renderer<Object>> template = templates.get(name);
+        if (template == null) {
+            FutureTask<Renderer<Object>> load = new FutureTask<Renderer<Object>>(load(name));
+            template = templates.putIfAbsent(name, load);
+            if (template == null) {
+                misses.incrementAndGet();
+                template = load;
+                load.run();
+            } else {
+                hits.incrementAndGet();
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+        try {
+            return template.get();
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof FileNotFoundException)) templates.remove(name, template);
+            throw LazyException.lazyException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    // Gets keep using the old template until the new one has loaded, and keep it when the change fails to load or
+    // parse so a half written edit never takes a working template away; the failure is thrown for the caller to
+    // report. A deleted file makes the template missing, templates nobody asked for are left alone
+    public boolean reload(String name) {
+        FutureTask<Renderer<Object>> current = templates.get(name);
+        if (current == null) return false;
+        FutureTask<Renderer<Object>> load = new FutureTask<Renderer<Object>>(load(name));
+        load.run();
+        try {
+            load.get();
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof FileNotFoundException)) throw LazyException.lazyException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return changed(templates.replace(name, current, load));
+    }
+
+    public void invalidate(String name) {
+        changed(templates.remove(name) != null);
+    }
+
+    public void clear() {
+        templates.clear();
+        changed(true);
+    }
+
+    // Changes whenever a template that may have been handed out is swapped or dropped
+    public int version() {
+        return version.get();
+    }
+
+    private boolean changed(boolean changed) {
+        if (changed) version.incrementAndGet();
+        return changed;
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long notFound() {
+        return notFound.get();
+    }
+
+    public long loadTime(TimeUnit unit) {
+        return unit.convert(loadTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long parseTime(TimeUnit unit) {
+        return unit.convert(parseTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private Callable<Renderer<Object>> load(final String name) {
+        return new Callable<Renderer<Object>>() {
+            public Renderer<Object> call() throws Exception {
+                long start = System.nanoTime();
+                String template;
+                try {
+                    template = Strings.toString(baseUrl.mergePath(format("%s.fun", name)).toURL().openStream());
+                } catch (FileNotFoundException e) {
+                    notFound.incrementAndGet();
+                    throw e;
+                } finally {
+                    loadTime.addAndGet(System.nanoTime() - start);
+                }
+                long parse = System.nanoTime();
+                try {
+                    return new StringFunclate(template, parent);
+                } finally {
+                    parseTime.addAndGet(System.nanoTime() - parse);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.googlecode.funclate;
+
+import com.googlecode.totallylazy.LazyException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+public class TemplateWatcher implements Closeable {
+    public static final long DEFAULT_DEBOUNCE_MILLISECONDS = 100;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong lastLatency = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final Path directory;
+    private final String extension;
+    private final Reloadable templates;
+    private final long debounce;
+    private final WatchService service;
+    private final Thread thread;
+
+    public interface Reloadable {
+        // Returns true when a template that was in use got swapped
+        boolean reload(String name) throws Exception;
+    }
+
+    private TemplateWatcher(Path directory, String extension, Reloadable templates, long debounce, TimeUnit unit) throws IOException {
+        this.directory = directory;
+        this.extension = extension;
+        this.templates = templates;
+        this.debounce = unit.toNanos(debounce);
+        this.service = directory.getFileSystem().newWatchService();
+        directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        thread = new Thread(watcher(), "funclate-template-watcher " + directory);
+        thread.setDaemon(true);
+    }
+
+    public static TemplateWatcher watch(Path directory, String extension, Reloadable templates, long debounce, TimeUnit unit) {
+        try {
+            TemplateWatcher watcher = new TemplateWatcher(directory, extension, templates, debounce, unit);
+            watcher.thread.start();
+            return watcher;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    public static Path directory(URL baseUrl) {
+        if (!"file".equals(baseUrl.getProtocol())) throw new IllegalArgumentException(String.format("Can only watch templates in a directory but was given '%s'", baseUrl));
+        try {
+            return Paths.get(baseUrl.toURI());
+        } catch (URISyntaxException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    public long batches() {
+        return batches.get();
+    }
+
+    public long reloads() {
+        return reloads.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    public long lastLatency(TimeUnit unit) {
+        return unit.convert(lastLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long totalLatency(TimeUnit unit) {
+        return unit.convert(totalLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public void close() throws IOException {
+        service.close();
+        thread.interrupt();
+    }
+
+    private Runnable watcher() {
+        return new Runnable() {
+            public void run() {
+                try {
+                    while (true) {
+                        WatchKey key = service.take();
+                        long changed = System.nanoTime();
+                        Set<String> names = new LinkedHashSet<String>();
+                        collect(key, names);
+                        // Editors write a file in several steps so wait for things to go quiet before reloading
+                        for (key = service.poll(debounce, TimeUnit.NANOSECONDS); key != null; key = service.poll(debounce, TimeUnit.NANOSECONDS)) {
+                            collect(key, names);
+                        }
+                        reload(names, changed);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ClosedWatchServiceException e) {
+                    // closed
+                }
+            }
+        };
+    }
+
+    private void collect(WatchKey key, Set<String> names) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) everything(names);
+            else name(((Path) event.context()).getFileName().toString(), names);
+        }
+        key.reset();
+    }
+
+    private void everything(Set<String> names) {
+        try {
+            DirectoryStream<Path> files = newDirectoryStream(directory, "*" + extension);
+            try {
+                for (Path file : files) name(file.getFileName().toString(), names);
+            } finally {
+                files.close();
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private void name(String fileName, Set<String> names) {
+        if (fileName.endsWith(extension)) names.add(fileName.substring(0, fileName.length() - extension.length()));
+    }
+
+    private void reload(Set<String> names, long changed) {
+        if (names.isEmpty()) return;
+        for (String name : names) {
+            try {
+                if (templates.reload(name)) reloads.incrementAndGet();
+            } catch (Exception e) {
+                failures.incrementAndGet();
+            }
+        }
+        long latency = System.nanoTime() - changed;
+        lastLatency.set(latency);
+        totalLatency.addAndGet(latency);
+        batches.incrementAndGet();
+    }
+}
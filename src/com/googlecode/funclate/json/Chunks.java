@@ -0,0 +1,71 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.LazyException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+// Collects results in submission order. On a ForkJoinPool chunks are forked and joined, so a caller already running
+// on the pool helps rather than parking a worker; on any other executor the caller runs each chunk nobody has
+// started yet before waiting for it, so it never waits on work queued behind itself
+class Chunks<T> {
+    private final Executor executor;
+    private final List<Future<T>> tasks = new ArrayList<Future<T>>();
+
+    Chunks(Executor executor) {
+        this.executor = executor;
+    }
+
+    static ForkJoinPool shared() {
+        return Shared.pool;
+    }
+
+    Chunks<T> submit(Callable<T> chunk) {
+        if (executor instanceof ForkJoinPool) {
+            ForkJoinTask<T> task = ForkJoinTask.adapt(chunk);
+            tasks.add(task);
+            if (ForkJoinTask.getPool() == executor) task.fork();
+            else ((ForkJoinPool) executor).execute(task);
+        } else {
+            FutureTask<T> task = new FutureTask<T>(chunk);
+            tasks.add(task);
+            executor.execute(task);
+        }
+        return this;
+    }
+
+    int size() {
+        return tasks.size();
+    }
+
+    T get(int index) {
+        Future<T> task = tasks.get(index);
+        try {
+            if (task instanceof FutureTask) ((FutureTask<T>) task).run();
+            return task.get();
+        } catch (ExecutionException e) {
+            cancel();
+            throw LazyException.lazyException(e.getCause());
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    void cancel() {
+        for (Future<T> task : tasks) task.cancel(true);
+    }
+
+    // Created on first use and never shut down, its workers are daemon threads
+    private static class Shared {
+        private static final ForkJoinPool pool = new ForkJoinPool();
+    }
+}
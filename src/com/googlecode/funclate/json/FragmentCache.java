@@ -0,0 +1,167 @@
+package com.googlecode.funclate.json;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class FragmentCache {
+    public static final long DEFAULT_MAXIMUM_CHARACTERS = 16 * 1024 * 1024;
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<Object>();
+    private final LinkedHashMap<IdentityKey, Fragment> fragments = new LinkedHashMap<IdentityKey, Fragment>(16, 0.75f, true);
+    private final long maximumCharacters;
+    private long characters;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public FragmentCache(long maximumCharacters) {
+        this.maximumCharacters = maximumCharacters;
+    }
+
+    public FragmentCache() {
+        this(DEFAULT_MAXIMUM_CHARACTERS);
+    }
+
+    public synchronized String get(Object value) {
+        Fragment fragment = fragment(value);
+        return fragment == null ? null : fragment.toString();
+    }
+
+    public synchronized void put(Object value, String fragment) {
+        expungeCollected();
+        if (fragment.length() > maximumCharacters) return;
+        put(value, new Fragment(new Document(fragment), 0, fragment.length()));
+        evictEldest();
+    }
+
+    synchronized Fragment fragment(Object value) {
+        expungeCollected();
+        Fragment fragment = fragments.get(new IdentityKey(value, null));
+        if (fragment == null) misses++;
+        else hits++;
+        return fragment;
+    }
+
+    // Every value serialised in one pass shares the same document, only the offsets differ
+    synchronized void put(String document, Object[] values, int[] offsets, int size) {
+        expungeCollected();
+        if (document.length() > maximumCharacters) return;
+        Document shared = new Document(document);
+        for (int i = 0; i < size; i++) {
+            put(values[i], new Fragment(shared, offsets[i * 2], offsets[i * 2 + 1]));
+        }
+        evictEldest();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        expungeCollected();
+        return fragments.size();
+    }
+
+    // Counts the documents kept alive by the cached fragments, not the fragments themselves
+    public synchronized long characters() {
+        expungeCollected();
+        return characters;
+    }
+
+    public synchronized void clear() {
+        fragments.clear();
+        characters = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    private void put(Object value, Fragment fragment) {
+        Fragment previous = fragments.put(new IdentityKey(value, collected), fragment);
+        if (previous != null) release(previous);
+        if (fragment.document.references++ == 0) characters += fragment.document.text.length();
+    }
+
+    private void release(Fragment fragment) {
+        if (--fragment.document.references == 0) characters -= fragment.document.text.length();
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<IdentityKey, Fragment>> iterator = fragments.entrySet().iterator();
+        while (characters > maximumCharacters && iterator.hasNext()) {
+            release(iterator.next().getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private void expungeCollected() {
+        for (Reference<?> reference = collected.poll(); reference != null; reference = collected.poll()) {
+            Fragment fragment = fragments.remove(reference);
+            if (fragment != null) release(fragment);
+        }
+    }
+
+    private static class Document {
+        private final String text;
+        private int references;
+
+        private Document(String text) {
+            this.text = text;
+        }
+    }
+
+    static class Fragment {
+        private final Document document;
+        private final int start;
+        private final int end;
+
+        private Fragment(Document document, int start, int end) {
+            this.document = document;
+            this.start = start;
+            this.end = end;
+        }
+
+        StringBuilder appendTo(StringBuilder builder) {
+            return builder.append(document.text, start, end);
+        }
+
+        @Override
+        public String toString() {
+            return document.text.substring(start, end);
+        }
+    }
+
+    private static class IdentityKey extends WeakReference<Object> {
+        private final int hashCode;
+
+        private IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof IdentityKey)) return false;
+            Object referent = get();
+            return referent != null && referent == ((IdentityKey) other).get();
+        }
+    }
+}
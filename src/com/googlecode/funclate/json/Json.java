@@ -1,12 +1,20 @@
 package com.googlecode.funclate.json;
 
 import com.googlecode.funclate.Model;
-import com.googlecode.funclate.json.grammar.Grammar;
+import com.googlecode.totallylazy.LazyException;
 import com.googlecode.totallylazy.Mapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import static com.googlecode.funclate.json.Utf8Sink.utf8Sink;
+import static com.googlecode.funclate.json.Utf8Source.utf8Source;
 import static com.googlecode.totallylazy.Unchecked.cast;
 
 public class Json {
@@ -14,8 +22,59 @@ public class Json {
         return StreamingJson.toJson(value, new StringBuilder()).toString();
     }
 
+    public static String toJson(Object value, int parallelism) {
+        if (parallelism <= 1 || !ParallelJson.isLarge(value)) return toJson(value);
+        return ParallelJson.toJson(value, new StringBuilder(), Chunks.shared(), parallelism).toString();
+    }
+
+    public static String toJson(Object value, Executor executor) {
+        return ParallelJson.toJson(value, new StringBuilder(), executor, Runtime.getRuntime().availableProcessors()).toString();
+    }
+
+    public static String toJson(Model value, FragmentCache cache) {
+        return StreamingJson.toJson(value, cache);
+    }
+
     public static String toJson(Model value) {
-        return StreamingJson.toJson(value.toMap(), new StringBuilder()).toString();
+        return StreamingJson.toJson(value, new StringBuilder()).toString();
+    }
+
+    public static OutputStream toJson(Object value, OutputStream outputStream) {
+        flush(StreamingJson.toJson(value, utf8Sink(outputStream)));
+        return outputStream;
+    }
+
+    public static WritableByteChannel toJson(Object value, WritableByteChannel channel) {
+        flush(StreamingJson.toJson(value, utf8Sink(channel)));
+        return channel;
+    }
+
+    public static ByteBuffer toJson(Object value, ByteBuffer buffer) {
+        flush(StreamingJson.toJson(value, utf8Sink(buffer)));
+        return buffer;
+    }
+
+    public static OutputStream toJson(Model value, OutputStream outputStream) {
+        flush(StreamingJson.toJson(value, utf8Sink(outputStream)));
+        return outputStream;
+    }
+
+    public static WritableByteChannel toJson(Model value, WritableByteChannel channel) {
+        flush(StreamingJson.toJson(value, utf8Sink(channel)));
+        return channel;
+    }
+
+    public static ByteBuffer toJson(Model value, ByteBuffer buffer) {
+        flush(StreamingJson.toJson(value, utf8Sink(buffer)));
+        return buffer;
+    }
+
+    private static void flush(Utf8Sink sink) {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
     }
 
     public static String toJson(CharSequence value) {
@@ -34,16 +93,70 @@ public class Json {
         return map(json);
     }
 
+    public static Map<String, Object> parse(byte[] json) {
+        return JsonParser.object(utf8Source(json));
+    }
+
+    public static Map<String, Object> parse(ByteBuffer json) {
+        return JsonParser.object(utf8Source(json));
+    }
+
+    public static Map<String, Object> parse(Path json) {
+        return JsonParser.object(utf8Source(json));
+    }
+
     public static <V> Map<String, V> map(String json) {
-        return cast(Grammar.OBJECT.parse(json));
+        return cast(JsonParser.object(json));
     }
 
     public static <V> List<V> list(String json) {
-        return cast(Grammar.ARRAY.parse(json));
+        return cast(JsonParser.array(json));
+    }
+
+    public static <V> List<V> list(CharSequence json, int parallelism) {
+        if (parallelism <= 1 || !ParallelJsonParser.isLarge(json)) return cast(JsonParser.array(json));
+        return cast(ParallelJsonParser.array(json, JsonParser.maps, NumberDecoding.BIG_DECIMAL, null, Chunks.shared(), parallelism));
+    }
+
+    public static <V> List<V> list(CharSequence json, Executor executor) {
+        if (!ParallelJsonParser.isLarge(json)) return cast(JsonParser.array(json));
+        return cast(ParallelJsonParser.array(json, JsonParser.maps, NumberDecoding.BIG_DECIMAL, null, executor, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static <V> List<V> list(Path json, int parallelism) {
+        return list(utf8Source(json), parallelism);
+    }
+
+    public static Map<String, Object> extract(CharSequence json, String... paths) {
+        return JsonExtractor.extract(json, paths);
+    }
+
+    public static Map<String, Object> extract(byte[] json, String... paths) {
+        return JsonExtractor.extract(utf8Source(json), paths);
     }
 
     public static Object object(String json) {
-        return Grammar.VALUE.parse(json);
+        return JsonParser.value(json);
+    }
+
+    public static Map<String, Object> parse(String json, NumberDecoding numbers) {
+        return map(json, numbers);
+    }
+
+    public static Map<String, Object> parse(String json, NumberDecoding numbers, SymbolTable strings) {
+        return cast(JsonParser.object(json, JsonParser.maps, numbers, strings));
+    }
+
+    public static <V> Map<String, V> map(String json, NumberDecoding numbers) {
+        return cast(JsonParser.object(json, JsonParser.maps, numbers));
+    }
+
+    public static <V> List<V> list(String json, NumberDecoding numbers) {
+        return cast(JsonParser.array(json, JsonParser.maps, numbers));
+    }
+
+    public static Object object(String json, NumberDecoding numbers) {
+        return JsonParser.value(json, JsonParser.maps, numbers);
     }
 
     public static class functions {
@@ -0,0 +1,15 @@
+package com.googlecode.funclate.json;
+
+public interface JsonBuilder<O, A> {
+    O startObject();
+
+    O field(O object, String key, Object value);
+
+    Object endObject(O object);
+
+    A startArray();
+
+    A element(A array, Object value);
+
+    Object endArray(A array);
+}
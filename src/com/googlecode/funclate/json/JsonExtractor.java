@@ -0,0 +1,215 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.Pair;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+public class JsonExtractor {
+    private static final int DONE = -1;
+    private final CharSequence json;
+    private final int length;
+    private final Map<String, Object> found = new LinkedHashMap<String, Object>();
+    private int remaining;
+
+    private JsonExtractor(CharSequence json) {
+        this.json = json;
+        this.length = json.length();
+    }
+
+    // Paths look like $.header.type or $.items[0].id, the leading $ is optional. Only the addressed values are decoded,
+    // everything else is skipped by counting brackets, and scanning stops as soon as every path has been found
+    public static Map<String, Object> extract(CharSequence json, String... paths) {
+        Node root = new Node();
+        for (String path : paths) root.add(path, segments(path), 0);
+        JsonExtractor extractor = new JsonExtractor(json);
+        extractor.remaining = root.terminals();
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        if (extractor.remaining == 0) return result;
+        extractor.visit(extractor.whitespace(0), root);
+        for (String path : paths) {
+            if (extractor.found.containsKey(path)) result.put(path, extractor.found.get(path));
+        }
+        return result;
+    }
+
+    // Returns the position just past the value, or DONE once every path has been found. A decoded value also answers
+    // the paths below it, so nothing is scanned twice
+    private int visit(int position, Node node) {
+        if (position >= length) throw error("Expected a value", position);
+        if (node.paths != null && !found.containsKey(node.paths.get(0))) {
+            Pair<Object, Integer> value = JsonParser.valueAt(json, position);
+            return found(node, value.first()) ? DONE : value.second();
+        }
+        char c = json.charAt(position);
+        if (c == '{' && !node.keys.isEmpty()) return object(position + 1, node);
+        if (c == '[' && !node.indexes.isEmpty()) return array(position + 1, node);
+        return skip(position);
+    }
+
+    private boolean found(Node node, Object value) {
+        if (node.paths != null && !found.containsKey(node.paths.get(0))) {
+            for (String path : node.paths) found.put(path, value);
+            if (--remaining == 0) return true;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            for (Map.Entry<String, Node> child : node.keys.entrySet()) {
+                if (map.containsKey(child.getKey()) && found(child.getValue(), map.get(child.getKey()))) return true;
+            }
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            for (Map.Entry<Integer, Node> child : node.indexes.entrySet()) {
+                if (child.getKey() < list.size() && found(child.getValue(), list.get(child.getKey()))) return true;
+            }
+        }
+        return false;
+    }
+
+    private int object(int position, Node node) {
+        position = whitespace(position);
+        if (position < length && json.charAt(position) == '}') return position + 1;
+        while (true) {
+            if (position >= length || json.charAt(position) != '"') throw error("Expected '\"'", position);
+            int keyEnd = closingQuote(position + 1);
+            Node child = node.child(json, position + 1, keyEnd);
+            position = whitespace(keyEnd + 1);
+            position = expect(position, ':');
+            position = whitespace(position);
+            position = child == null ? skip(position) : visit(position, child);
+            if (position == DONE) return DONE;
+            position = whitespace(position);
+            if (position < length && json.charAt(position) == '}') return position + 1;
+            position = whitespace(expect(position, ','));
+        }
+    }
+
+    private int array(int position, Node node) {
+        position = whitespace(position);
+        if (position < length && json.charAt(position) == ']') return position + 1;
+        for (int index = 0; ; index++) {
+            Node child = node.indexes.get(index);
+            position = child == null ? skip(position) : visit(position, child);
+            if (position == DONE) return DONE;
+            position = whitespace(position);
+            if (position < length && json.charAt(position) == ']') return position + 1;
+            position = whitespace(expect(position, ','));
+        }
+    }
+
+    private int skip(int position) {
+        if (position >= length) throw error("Expected a value", position);
+        char c = json.charAt(position);
+        if (c == '"') return closingQuote(position + 1) + 1;
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            for (; position < length; position++) {
+                c = json.charAt(position);
+                if (c == '"') position = closingQuote(position + 1);
+                else if (c == '{' || c == '[') depth++;
+                else if ((c == '}' || c == ']') && --depth == 0) return position + 1;
+            }
+            throw error("Unexpected end of input", length);
+        }
+        while (position < length && ",}] \t\r\n".indexOf(json.charAt(position)) < 0) position++;
+        return position;
+    }
+
+    private int closingQuote(int position) {
+        for (; position < length; position++) {
+            char c = json.charAt(position);
+            if (c == '"') return position;
+            if (c == '\\') position++;
+        }
+        throw error("Unterminated string", length);
+    }
+
+    private int expect(int position, char c) {
+        if (position >= length || json.charAt(position) != c) throw error(format("Expected '%s'", c), position);
+        return position + 1;
+    }
+
+    private int whitespace(int position) {
+        while (position < length && JsonParser.isWhitespace(json.charAt(position))) position++;
+        return position;
+    }
+
+    private static JsonParseException error(String message, int position) {
+        return new JsonParseException(message, position);
+    }
+
+    private static List<Object> segments(String path) {
+        List<Object> segments = new ArrayList<Object>();
+        int position = path.startsWith("$") ? 1 : 0;
+        while (position < path.length()) {
+            char c = path.charAt(position);
+            if (c == '.') {
+                position++;
+                continue;
+            }
+            if (c == '[') {
+                int close = path.indexOf(']', position);
+                if (close < 0) throw new IllegalArgumentException(format("Invalid path '%s'", path));
+                segments.add(Integer.valueOf(path.substring(position + 1, close).trim()));
+                position = close + 1;
+                continue;
+            }
+            int end = position;
+            while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') end++;
+            segments.add(path.substring(position, end));
+            position = end;
+        }
+        return segments;
+    }
+
+    private static class Node {
+        private final Map<String, Node> keys = new LinkedHashMap<String, Node>();
+        private final Map<Integer, Node> indexes = new LinkedHashMap<Integer, Node>();
+        private List<String> paths;
+
+        private void add(String path, List<Object> segments, int depth) {
+            if (depth == segments.size()) {
+                if (paths == null) paths = new ArrayList<String>();
+                if (!paths.contains(path)) paths.add(path);
+                return;
+            }
+            Object segment = segments.get(depth);
+            Node child = segment instanceof Integer ? indexes.get(segment) : keys.get(segment);
+            if (child == null) {
+                child = new Node();
+                if (segment instanceof Integer) indexes.put((Integer) segment, child);
+                else keys.put((String) segment, child);
+            }
+            child.add(path, segments, depth + 1);
+        }
+
+        private int terminals() {
+            int count = paths == null ? 0 : 1;
+            for (Node child : keys.values()) count += child.terminals();
+            for (Node child : indexes.values()) count += child.terminals();
+            return count;
+        }
+
+        private Node child(CharSequence json, int start, int end) {
+            for (Map.Entry<String, Node> entry : keys.entrySet()) {
+                if (matches(json, start, end, entry.getKey())) return entry.getValue();
+            }
+            return null;
+        }
+
+        private static boolean matches(CharSequence json, int start, int end, String key) {
+            if (end - start < key.length()) return false;
+            for (int i = 0; i < end - start; i++) {
+                char c = json.charAt(start + i);
+                if (c == '\\' || c >= 0x80) return JsonParser.value(json.subSequence(start - 1, end + 1)).equals(key);
+                if (i >= key.length() || c != key.charAt(i)) return false;
+            }
+            return end - start == key.length();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.googlecode.funclate.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static java.lang.String.format;
+
+public class JsonFeeder {
+    public interface Handler {
+        void startObject();
+
+        void endObject();
+
+        void startArray();
+
+        void endArray();
+
+        void key(String key);
+
+        void value(Object value);
+    }
+
+    private static final int IDLE = 0;
+    private static final int STRING = 1;
+    private static final int ESCAPE = 2;
+    private static final int UNICODE = 3;
+    private static final int UTF8 = 4;
+    private static final int NUMBER = 5;
+    private static final int LITERAL = 6;
+
+    private static final int VALUE = 0;
+    private static final int VALUE_OR_END = 1;
+    private static final int KEY = 2;
+    private static final int KEY_OR_END = 3;
+    private static final int COLON = 4;
+    private static final int COMMA_OR_END = 5;
+    private static final int DONE = 6;
+
+    private final Handler handler;
+    private final NumberDecoding numbers;
+    private final StringBuilder text = new StringBuilder();
+    private char[] containers = new char[16];
+    private int depth;
+    private int expect = VALUE;
+    private int state = IDLE;
+    private long offset;
+    private long tokenStart;
+    private int pending;
+    private int codePoint;
+    private int minimum;
+    private String literal;
+    private int matched;
+
+    public JsonFeeder(Handler handler, NumberDecoding numbers) {
+        this.handler = handler;
+        this.numbers = numbers;
+    }
+
+    public JsonFeeder(Handler handler) {
+        this(handler, NumberDecoding.BIG_DECIMAL);
+    }
+
+    // Everything remaining in bytes is consumed, a token cut off at the end of one chunk carries on in the next
+    public JsonFeeder feed(ByteBuffer bytes) {
+        while (bytes.hasRemaining()) {
+            accept(bytes.get() & 0xFF);
+            offset++;
+        }
+        return this;
+    }
+
+    public void end() {
+        if (state == NUMBER) number();
+        if (state != IDLE || expect != DONE) throw error("Unexpected end of input", offset);
+    }
+
+    public boolean complete() {
+        return expect == DONE;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    private void accept(int c) {
+        switch (state) {
+            case STRING:
+                if (c == '"') {
+                    state = IDLE;
+                    string(text.toString());
+                } else if (c == '\\') state = ESCAPE;
+                else if (c < 0x80) text.append((char) c);
+                else utf8(c);
+                return;
+            case ESCAPE:
+                escape(c);
+                return;
+            case UNICODE:
+                int digit = Character.digit(c, 16);
+                if (digit < 0) throw error("Invalid unicode escape", offset);
+                codePoint = (codePoint << 4) | digit;
+                if (--pending == 0) {
+                    text.append((char) codePoint);
+                    state = STRING;
+                }
+                return;
+            case UTF8:
+                if ((c & 0xC0) != 0x80) throw error("Invalid UTF-8", offset);
+                codePoint = (codePoint << 6) | (c & 0x3F);
+                if (--pending == 0) {
+                    if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                        throw error("Invalid UTF-8", offset);
+                    }
+                    text.appendCodePoint(codePoint);
+                    state = STRING;
+                }
+                return;
+            case LITERAL:
+                if (c != literal.charAt(matched)) throw error(format("Expected '%s'", literal), tokenStart);
+                if (++matched == literal.length()) {
+                    state = IDLE;
+                    value(literal.equals("null") ? null : Boolean.valueOf(literal));
+                }
+                return;
+            case NUMBER:
+                if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    text.append((char) c);
+                    return;
+                }
+                number();
+                break;
+        }
+        idle(c);
+    }
+
+    private void idle(int c) {
+        if (c == ' ' || c == '\t' || c == '\n' || c == '\r') return;
+        tokenStart = offset;
+        switch (c) {
+            case '{': startObject(); return;
+            case '}': endObject(); return;
+            case '[': startArray(); return;
+            case ']': endArray(); return;
+            case ':': colon(); return;
+            case ',': comma(); return;
+            case '"':
+                text.setLength(0);
+                state = STRING;
+                return;
+            case 't': literal("true"); return;
+            case 'f': literal("false"); return;
+            case 'n': literal("null"); return;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    text.setLength(0);
+                    text.append((char) c);
+                    state = NUMBER;
+                    return;
+                }
+                throw error(format("Unexpected character '%s'", (char) c), offset);
+        }
+    }
+
+    private void escape(int c) {
+        state = STRING;
+        switch (c) {
+            case '"': text.append('"'); break;
+            case '\\': text.append('\\'); break;
+            case '/': text.append('/'); break;
+            case 'b': text.append('\b'); break;
+            case 'f': text.append('\f'); break;
+            case 'n': text.append('\n'); break;
+            case 'r': text.append('\r'); break;
+            case 't': text.append('\t'); break;
+            case 'u':
+                state = UNICODE;
+                pending = 4;
+                codePoint = 0;
+                break;
+            default:
+                throw error(format("Invalid escape '\\%s'", (char) c), offset);
+        }
+    }
+
+    private void utf8(int lead) {
+        if ((lead & 0xE0) == 0xC0) {
+            codePoint = lead & 0x1F;
+            pending = 1;
+            minimum = 0x80;
+        } else if ((lead & 0xF0) == 0xE0) {
+            codePoint = lead & 0x0F;
+            pending = 2;
+            minimum = 0x800;
+        } else if ((lead & 0xF8) == 0xF0) {
+            codePoint = lead & 0x07;
+            pending = 3;
+            minimum = 0x10000;
+        } else {
+            throw error("Invalid UTF-8", offset);
+        }
+        state = UTF8;
+    }
+
+    private void literal(String literal) {
+        this.literal = literal;
+        matched = 1;
+        state = LITERAL;
+    }
+
+    private void number() {
+        state = IDLE;
+        Object value;
+        try {
+            value = JsonParser.value(text.toString(), JsonParser.maps, numbers);
+        } catch (JsonParseException e) {
+            throw error("Invalid number", tokenStart);
+        }
+        value(value);
+    }
+
+    private void string(String string) {
+        if (expect == KEY || expect == KEY_OR_END) {
+            handler.key(string);
+            expect = COLON;
+            return;
+        }
+        value(string);
+    }
+
+    private void value(Object value) {
+        expectValue();
+        handler.value(value);
+        afterValue();
+    }
+
+    private void startObject() {
+        expectValue();
+        push('{');
+        expect = KEY_OR_END;
+        handler.startObject();
+    }
+
+    private void startArray() {
+        expectValue();
+        push('[');
+        expect = VALUE_OR_END;
+        handler.startArray();
+    }
+
+    private void endObject() {
+        if (depth == 0 || containers[depth - 1] != '{' || (expect != KEY_OR_END && expect != COMMA_OR_END)) throw unexpected('}');
+        depth--;
+        handler.endObject();
+        afterValue();
+    }
+
+    private void endArray() {
+        if (depth == 0 || containers[depth - 1] != '[' || (expect != VALUE_OR_END && expect != COMMA_OR_END)) throw unexpected(']');
+        depth--;
+        handler.endArray();
+        afterValue();
+    }
+
+    private void colon() {
+        if (expect != COLON) throw unexpected(':');
+        expect = VALUE;
+    }
+
+    private void comma() {
+        if (expect != COMMA_OR_END) throw unexpected(',');
+        expect = containers[depth - 1] == '{' ? KEY : VALUE;
+    }
+
+    private void expectValue() {
+        if (expect == DONE) throw error("Expected end of input", tokenStart);
+        if (expect == KEY || expect == KEY_OR_END) throw error("Expected '\"'", tokenStart);
+        if (expect == COLON) throw error("Expected ':'", tokenStart);
+        if (expect == COMMA_OR_END) throw error("Expected ','", tokenStart);
+    }
+
+    private void afterValue() {
+        expect = depth == 0 ? DONE : COMMA_OR_END;
+    }
+
+    private void push(char container) {
+        if (depth == containers.length) containers = Arrays.copyOf(containers, depth * 2);
+        containers[depth++] = container;
+    }
+
+    private JsonParseException unexpected(char c) {
+        return error(expect == DONE ? "Expected end of input" : format("Unexpected character '%s'", c), tokenStart);
+    }
+
+    private JsonParseException error(String message, long offset) {
+        return new JsonParseException(message, offset);
+    }
+
+    public static class Assembler implements Handler {
+        private final JsonBuilder<Object, Object> builder;
+        private final List<Object> containers = new ArrayList<Object>();
+        private final List<String> keys = new ArrayList<String>();
+        private String key;
+        private Object value;
+
+        public Assembler(JsonBuilder<?, ?> builder) {
+            this.builder = cast(builder);
+        }
+
+        public Object value() {
+            return value;
+        }
+
+        public void startObject() {
+            push(builder.startObject());
+        }
+
+        public void endObject() {
+            add(builder.endObject(pop()));
+        }
+
+        public void startArray() {
+            push(builder.startArray());
+        }
+
+        public void endArray() {
+            add(builder.endArray(pop()));
+        }
+
+        public void key(String key) {
+            this.key = JsonParser.symbolTable().intern(key);
+        }
+
+        public void value(Object value) {
+            add(value);
+        }
+
+        private void push(Object container) {
+            containers.add(container);
+            keys.add(key);
+            key = null;
+        }
+
+        private Object pop() {
+            key = keys.remove(keys.size() - 1);
+            return containers.remove(containers.size() - 1);
+        }
+
+        private void add(Object value) {
+            int top = containers.size() - 1;
+            if (top < 0) this.value = value;
+            else if (key != null) containers.set(top, builder.field(containers.get(top), key, value));
+            else containers.set(top, builder.element(containers.get(top), value));
+        }
+    }
+}
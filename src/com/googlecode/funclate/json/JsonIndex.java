@@ -0,0 +1,206 @@
+package com.googlecode.funclate.json;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+public class JsonIndex {
+    private final CharSequence json;
+    private final int length;
+    private int[] tokens = new int[48];
+    private int size;
+    private int position;
+
+    private JsonIndex(CharSequence json) {
+        this.json = json;
+        this.length = json.length();
+    }
+
+    public static JsonIndex index(CharSequence json) {
+        JsonIndex index = new JsonIndex(json);
+        index.value();
+        if (index.position < index.length) throw index.error("Expected end of input");
+        index.tokens = Arrays.copyOf(index.tokens, index.size * 3);
+        return index;
+    }
+
+    public CharSequence json() {
+        return json;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public char type(int token) {
+        return json.charAt(start(token));
+    }
+
+    public int start(int token) {
+        return tokens[token * 3];
+    }
+
+    public int end(int token) {
+        return tokens[token * 3 + 1];
+    }
+
+    public int next(int token) {
+        return tokens[token * 3 + 2];
+    }
+
+    public int firstChild(int token) {
+        return token + 1 < next(token) ? token + 1 : -1;
+    }
+
+    public int nextSibling(int token, int parent) {
+        int next = next(token);
+        return next < next(parent) ? next : -1;
+    }
+
+    public String string(int token) {
+        return (String) JsonParser.value(json.subSequence(start(token), end(token)));
+    }
+
+    public Number number(int token, NumberDecoding numbers) {
+        return numbers.decode(json, start(token), end(token));
+    }
+
+    public boolean matches(int token, String key) {
+        int start = start(token) + 1;
+        int end = end(token) - 1;
+        if (end - start < key.length()) return false;
+        for (int i = 0; i < end - start; i++) {
+            char c = json.charAt(start + i);
+            if (c == '\\' || c >= 0x80) return string(token).equals(key);
+            if (i >= key.length() || c != key.charAt(i)) return false;
+        }
+        return end - start == key.length();
+    }
+
+    public CharSequence raw(int token) {
+        return json.subSequence(start(token), end(token));
+    }
+
+    private int value() {
+        whitespace();
+        if (position >= length) throw error("Expected a value");
+        int token = add(position);
+        char c = json.charAt(position);
+        switch (c) {
+            case '{': position++; objectBody(); break;
+            case '[': position++; arrayBody(); break;
+            case '"': position++; stringBody(); break;
+            case 't': literal("true"); break;
+            case 'f': literal("false"); break;
+            case 'n': literal("null"); break;
+            default:
+                if (c == '-' || isDigit(c)) number();
+                else throw error(format("Unexpected character '%s'", c));
+        }
+        tokens[token * 3 + 1] = position;
+        tokens[token * 3 + 2] = size;
+        whitespace();
+        return token;
+    }
+
+    private void objectBody() {
+        whitespace();
+        if (consume('}')) return;
+        do {
+            whitespace();
+            if (position >= length || json.charAt(position) != '"') throw error("Expected '\"'");
+            int key = add(position++);
+            stringBody();
+            tokens[key * 3 + 1] = position;
+            tokens[key * 3 + 2] = size;
+            whitespace();
+            expect(':');
+            value();
+        } while (consume(','));
+        expect('}');
+    }
+
+    private void arrayBody() {
+        whitespace();
+        if (consume(']')) return;
+        do {
+            value();
+        } while (consume(','));
+        expect(']');
+    }
+
+    private void stringBody() {
+        while (position < length) {
+            char c = json.charAt(position++);
+            if (c == '"') return;
+            if (c != '\\') continue;
+            if (position >= length) break;
+            char escaped = json.charAt(position++);
+            switch (escaped) {
+                case '"': case '\\': case '/': case 'b': case 'f': case 'n': case 'r': case 't': break;
+                case 'u':
+                    for (int i = 0; i < 4; i++, position++) {
+                        if (position >= length || Character.digit(json.charAt(position), 16) < 0) throw error("Invalid unicode escape");
+                    }
+                    break;
+                default:
+                    position--;
+                    throw error(format("Invalid escape '\\%s'", escaped));
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void number() {
+        consume('-');
+        if (!digits()) throw error("Expected a digit");
+        if (consume('.') && !digits()) throw error("Expected a digit");
+        if (position < length && (json.charAt(position) == 'e' || json.charAt(position) == 'E')) {
+            position++;
+            if (!consume('+')) consume('-');
+            if (!digits()) throw error("Expected a digit");
+        }
+    }
+
+    private boolean digits() {
+        int start = position;
+        while (position < length && isDigit(json.charAt(position))) position++;
+        return position > start;
+    }
+
+    private void literal(String literal) {
+        int end = position + literal.length();
+        if (end > length || !literal.contentEquals(json.subSequence(position, end))) throw error(format("Expected '%s'", literal));
+        position = end;
+    }
+
+    private int add(int start) {
+        if (size * 3 == tokens.length) tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        tokens[size * 3] = start;
+        return size++;
+    }
+
+    private void whitespace() {
+        while (position < length && JsonParser.isWhitespace(json.charAt(position))) position++;
+    }
+
+    private boolean consume(char c) {
+        if (position < length && json.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) throw error(format("Expected '%s'", c));
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message, position);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,269 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.Model;
+import com.googlecode.funclate.ModelFactory;
+import com.googlecode.totallylazy.LazyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static com.googlecode.funclate.json.Utf8Source.utf8Source;
+
+public class JsonLines {
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private final ModelFactory factory;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int maximumInFlight;
+    private final NumberDecoding numbers;
+
+    public JsonLines(ModelFactory factory, Executor executor, int chunkSize, int maximumInFlight, NumberDecoding numbers) {
+        this.factory = factory;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.maximumInFlight = maximumInFlight;
+        this.numbers = numbers;
+    }
+
+    public JsonLines(ModelFactory factory, Executor executor) {
+        this(factory, executor, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors() * 2, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public Iterator<Model> ordered(InputStream inputStream) {
+        return new OrderedModels(new StreamChunks(inputStream));
+    }
+
+    public Iterator<Model> unordered(InputStream inputStream) {
+        return new UnorderedModels(new StreamChunks(inputStream));
+    }
+
+    public Iterator<Model> ordered(Path path) {
+        return new OrderedModels(new FileChunks(path));
+    }
+
+    public Iterator<Model> unordered(Path path) {
+        return new UnorderedModels(new FileChunks(path));
+    }
+
+    private Callable<List<Model>> parse(final Utf8Source chunk) {
+        return new Callable<List<Model>>() {
+            public List<Model> call() throws Exception {
+                List<Model> models = new ArrayList<Model>();
+                int length = chunk.length();
+                for (int start = 0; start < length; ) {
+                    int end = start;
+                    while (end < length && chunk.charAt(end) != '\n') end++;
+                    if (!blank(chunk, start, end)) models.add(ModelFactory.methods.create(factory, chunk.subSequence(start, end), numbers));
+                    start = end + 1;
+                }
+                return models;
+            }
+        };
+    }
+
+    private static boolean blank(CharSequence chunk, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!JsonParser.isWhitespace(chunk.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static List<Model> get(Future<List<Model>> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw LazyException.lazyException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    // Chunks are only read and submitted as the caller consumes models, so at most maximumInFlight are held at once.
+    // The first failure cancels whatever is still in flight rather than leaving it to run for a caller that has gone
+    private abstract class Models implements Iterator<Model> {
+        private final Iterator<Utf8Source> chunks;
+        private final Set<Future<List<Model>>> inFlight = new HashSet<Future<List<Model>>>();
+        private Iterator<Model> current = Collections.<Model>emptyList().iterator();
+
+        private Models(Iterator<Utf8Source> chunks) {
+            this.chunks = chunks;
+        }
+
+        abstract Future<List<Model>> submit(Callable<List<Model>> task);
+
+        abstract Future<List<Model>> nextCompleted();
+
+        public boolean hasNext() {
+            try {
+                while (!current.hasNext()) {
+                    while (inFlight.size() < maximumInFlight && chunks.hasNext()) inFlight.add(submit(parse(chunks.next())));
+                    if (inFlight.isEmpty()) return false;
+                    Future<List<Model>> completed = nextCompleted();
+                    inFlight.remove(completed);
+                    current = get(completed).iterator();
+                }
+                return true;
+            } catch (RuntimeException e) {
+                for (Future<List<Model>> future : inFlight) future.cancel(true);
+                inFlight.clear();
+                throw e;
+            }
+        }
+
+        public Model next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class OrderedModels extends Models {
+        private final Deque<Future<List<Model>>> pending = new ArrayDeque<Future<List<Model>>>();
+
+        private OrderedModels(Iterator<Utf8Source> chunks) {
+            super(chunks);
+        }
+
+        Future<List<Model>> submit(Callable<List<Model>> task) {
+            FutureTask<List<Model>> future = new FutureTask<List<Model>>(task);
+            pending.addLast(future);
+            executor.execute(future);
+            return future;
+        }
+
+        Future<List<Model>> nextCompleted() {
+            return pending.removeFirst();
+        }
+    }
+
+    private class UnorderedModels extends Models {
+        private final CompletionService<List<Model>> completed = new ExecutorCompletionService<List<Model>>(executor);
+
+        private UnorderedModels(Iterator<Utf8Source> chunks) {
+            super(chunks);
+        }
+
+        Future<List<Model>> submit(Callable<List<Model>> task) {
+            return completed.submit(task);
+        }
+
+        Future<List<Model>> nextCompleted() {
+            try {
+                return completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw LazyException.lazyException(e);
+            }
+        }
+    }
+
+    // Maps one window of the file per chunk, ending it at its last newline and doubling it for lines longer than it,
+    // so files of any size are read without holding a single mapping of the whole thing
+    private class FileChunks implements Iterator<Utf8Source> {
+        private final Path path;
+        private final long size;
+        private long start;
+
+        private FileChunks(Path path) {
+            this.path = path;
+            this.size = Utf8Source.size(path);
+        }
+
+        public boolean hasNext() {
+            return start < size;
+        }
+
+        public Utf8Source next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            for (long window = chunkSize; ; window *= 2) {
+                long end = Math.min(size, start + window);
+                Utf8Source chunk = utf8Source(path, start, (int) (end - start));
+                int length = chunk.length();
+                if (end < size) while (length > 0 && chunk.charAt(length - 1) != '\n') length--;
+                if (length == 0) continue;
+                start += length;
+                return chunk.subSequence(0, length);
+            }
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Reads whole lines into each chunk, carrying a partial last line over and growing the buffer for lines longer than it
+    private class StreamChunks implements Iterator<Utf8Source> {
+        private final InputStream inputStream;
+        private byte[] buffer = new byte[chunkSize];
+        private int size;
+        private boolean finished;
+        private Utf8Source next;
+
+        private StreamChunks(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        public boolean hasNext() {
+            if (next == null) next = read();
+            return next != null;
+        }
+
+        public Utf8Source next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Utf8Source chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private Utf8Source read() {
+            try {
+                while (true) {
+                    while (!finished && size < buffer.length) {
+                        int read = inputStream.read(buffer, size, buffer.length - size);
+                        if (read < 0) finished = true;
+                        else size += read;
+                    }
+                    int end = size;
+                    if (!finished) while (end > 0 && buffer[end - 1] != '\n') end--;
+                    if (end == 0) {
+                        if (finished) return null;
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        continue;
+                    }
+                    Utf8Source chunk = utf8Source(Arrays.copyOf(buffer, end));
+                    System.arraycopy(buffer, end, buffer, 0, size - end);
+                    size -= end;
+                    return chunk;
+                }
+            } catch (IOException e) {
+                throw LazyException.lazyException(e);
+            }
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.googlecode.funclate.json;
 
-import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 
-public class JsonModelRenderer implements Renderer<Object> {
+public class JsonModelRenderer implements StreamingRenderer<Object> {
     public String render(Object value) throws Exception {
         return Json.toJson(value);
     }
+
+    public <A extends Appendable> A render(Object value, A appendable) throws Exception {
+        return StreamingJson.toJson(value, appendable);
+    }
 }
@@ -0,0 +1,16 @@
+package com.googlecode.funclate.json;
+
+import static java.lang.String.format;
+
+public class JsonParseException extends IllegalArgumentException {
+    private final long offset;
+
+    public JsonParseException(String message, long offset) {
+        super(format("%s at offset %d", message, offset));
+        this.offset = offset;
+    }
+
+    public long offset() {
+        return offset;
+    }
+}
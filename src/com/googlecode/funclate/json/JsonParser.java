@@ -0,0 +1,348 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.Pair;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static java.lang.String.format;
+
+public class JsonParser {
+    public static final JsonBuilder<Map<String, Object>, List<Object>> maps = new JsonBuilder<Map<String, Object>, List<Object>>() {
+        public Map<String, Object> startObject() {
+            return new LinkedHashMap<String, Object>();
+        }
+
+        public Map<String, Object> field(Map<String, Object> object, String key, Object value) {
+            object.put(key, value);
+            return object;
+        }
+
+        public Object endObject(Map<String, Object> object) {
+            return object;
+        }
+
+        public List<Object> startArray() {
+            return new ArrayList<Object>();
+        }
+
+        public List<Object> element(List<Object> array, Object value) {
+            array.add(value);
+            return array;
+        }
+
+        public Object endArray(List<Object> array) {
+            return array;
+        }
+    };
+
+    private static final SymbolTable keys = new SymbolTable();
+
+    public static SymbolTable symbolTable() {
+        return keys;
+    }
+
+    private final CharSequence json;
+    private final int length;
+    private final JsonBuilder<Object, Object> builder;
+    private final NumberDecoding numbers;
+    private final SymbolTable strings;
+    private final boolean utf8;
+    private int position;
+
+    private JsonParser(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings) {
+        this(json, json.length(), builder, numbers, strings);
+    }
+
+    private JsonParser(CharSequence json, int length, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings) {
+        this.json = json;
+        this.length = length;
+        this.builder = cast(builder);
+        this.numbers = numbers;
+        this.strings = strings;
+        this.utf8 = json instanceof Utf8Source;
+    }
+
+    public static Object value(CharSequence json) {
+        return value(json, maps);
+    }
+
+    public static Map<String, Object> object(CharSequence json) {
+        return cast(object(json, maps));
+    }
+
+    public static List<Object> array(CharSequence json) {
+        return cast(array(json, maps));
+    }
+
+    public static Object value(CharSequence json, JsonBuilder<?, ?> builder) {
+        return value(json, builder, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public static Object value(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers) {
+        return value(json, builder, numbers, null);
+    }
+
+    // Short string values are deduplicated through strings when it is not null, keys always go through symbolTable()
+    public static Object value(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings) {
+        JsonParser parser = new JsonParser(json, builder, numbers, strings);
+        Object value = parser.value();
+        parser.end();
+        return value;
+    }
+
+    public static Object object(CharSequence json, JsonBuilder<?, ?> builder) {
+        return object(json, builder, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public static Object object(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers) {
+        return object(json, builder, numbers, null);
+    }
+
+    public static Object object(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings) {
+        JsonParser parser = new JsonParser(json, builder, numbers, strings);
+        parser.whitespace();
+        parser.expect('{');
+        Object object = parser.objectBody();
+        parser.end();
+        return object;
+    }
+
+    public static Object array(CharSequence json, JsonBuilder<?, ?> builder) {
+        return array(json, builder, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public static Object array(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers) {
+        return array(json, builder, numbers, null);
+    }
+
+    public static Object array(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings) {
+        JsonParser parser = new JsonParser(json, builder, numbers, strings);
+        parser.whitespace();
+        parser.expect('[');
+        Object array = parser.arrayBody();
+        parser.end();
+        return array;
+    }
+
+    // The comma separated values between start and end, so one huge array can be parsed in pieces
+    static List<Object> elements(CharSequence json, int start, int end, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings) {
+        JsonParser parser = new JsonParser(json, end, builder, numbers, strings);
+        parser.position = start;
+        List<Object> elements = new ArrayList<Object>();
+        do {
+            elements.add(parser.value());
+        } while (parser.consume(','));
+        parser.end();
+        return elements;
+    }
+
+    // The one value starting at position and the offset just past it, for scanners that decode only part of a document
+    static Pair<Object, Integer> valueAt(CharSequence json, int position) {
+        JsonParser parser = new JsonParser(json, maps, NumberDecoding.BIG_DECIMAL, null);
+        parser.position = position;
+        Object value = parser.value();
+        return Pair.pair(value, parser.position);
+    }
+
+    private Object value() {
+        whitespace();
+        if (position >= length) throw error("Expected a value");
+        char c = json.charAt(position);
+        Object value;
+        switch (c) {
+            case '{': position++; value = objectBody(); break;
+            case '[': position++; value = arrayBody(); break;
+            case '"': position++; value = stringBody(strings); break;
+            case 't': literal("true"); value = Boolean.TRUE; break;
+            case 'f': literal("false"); value = Boolean.FALSE; break;
+            case 'n': literal("null"); value = null; break;
+            default:
+                if (c == '-' || isDigit(c)) value = number();
+                else throw error(format("Unexpected character '%s'", c));
+        }
+        whitespace();
+        return value;
+    }
+
+    private void end() {
+        whitespace();
+        if (position < length) throw error("Expected end of input");
+    }
+
+    private Object objectBody() {
+        Object object = builder.startObject();
+        whitespace();
+        if (consume('}')) return builder.endObject(object);
+        do {
+            whitespace();
+            expect('"');
+            String key = stringBody(keys);
+            whitespace();
+            expect(':');
+            object = builder.field(object, key, value());
+        } while (consume(','));
+        expect('}');
+        return builder.endObject(object);
+    }
+
+    private Object arrayBody() {
+        Object array = builder.startArray();
+        whitespace();
+        if (consume(']')) return builder.endArray(array);
+        do {
+            array = builder.element(array, value());
+        } while (consume(','));
+        expect(']');
+        return builder.endArray(array);
+    }
+
+    private String stringBody(SymbolTable symbols) {
+        int start = position;
+        int hash = 0;
+        while (position < length) {
+            char c = json.charAt(position);
+            if (c == '"') {
+                String value = symbols == null ? json.subSequence(start, position).toString() : symbols.intern(json, start, position, hash);
+                position++;
+                return value;
+            }
+            if (c == '\\' || (c >= 0x80 && utf8)) {
+                String value = escapedString(new StringBuilder(position - start + 16).append(json, start, position));
+                return symbols == null ? value : symbols.intern(value);
+            }
+            hash = 31 * hash + c;
+            position++;
+        }
+        throw error("Unterminated string");
+    }
+
+    private String escapedString(StringBuilder builder) {
+        while (position < length) {
+            char c = json.charAt(position++);
+            if (c == '"') return builder.toString();
+            if (c >= 0x80 && utf8) {
+                utf8(c, builder);
+                continue;
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (position >= length) break;
+            char escaped = json.charAt(position++);
+            switch (escaped) {
+                case '"': builder.append('"'); break;
+                case '\\': builder.append('\\'); break;
+                case '/': builder.append('/'); break;
+                case 'b': builder.append('\b'); break;
+                case 'f': builder.append('\f'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                case 't': builder.append('\t'); break;
+                case 'u': builder.append(unicode()); break;
+                default:
+                    position--;
+                    throw error(format("Invalid escape '\\%s'", escaped));
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void utf8(char lead, StringBuilder builder) {
+        int codePoint;
+        int continuation;
+        if ((lead & 0xE0) == 0xC0) {
+            codePoint = lead & 0x1F;
+            continuation = 1;
+        } else if ((lead & 0xF0) == 0xE0) {
+            codePoint = lead & 0x0F;
+            continuation = 2;
+        } else if ((lead & 0xF8) == 0xF0) {
+            codePoint = lead & 0x07;
+            continuation = 3;
+        } else {
+            position--;
+            throw error("Invalid UTF-8");
+        }
+        int minimum = continuation == 1 ? 0x80 : continuation == 2 ? 0x800 : 0x10000;
+        for (int i = 0; i < continuation; i++) {
+            if (position >= length || (json.charAt(position) & 0xC0) != 0x80) throw error("Invalid UTF-8");
+            codePoint = (codePoint << 6) | (json.charAt(position++) & 0x3F);
+        }
+        if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+            throw error("Invalid UTF-8");
+        }
+        builder.appendCodePoint(codePoint);
+    }
+
+    private char unicode() {
+        if (position + 4 > length) throw error("Invalid unicode escape");
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(json.charAt(position), 16);
+            if (digit < 0) throw error("Invalid unicode escape");
+            value = (value << 4) | digit;
+            position++;
+        }
+        return (char) value;
+    }
+
+    private Number number() {
+        int start = position;
+        consume('-');
+        if (!digits()) throw error("Expected a digit");
+        if (consume('.') && !digits()) throw error("Expected a digit");
+        if (position < length && (json.charAt(position) == 'e' || json.charAt(position) == 'E')) {
+            position++;
+            if (!consume('+')) consume('-');
+            if (!digits()) throw error("Expected a digit");
+        }
+        return numbers.decode(json, start, position);
+    }
+
+    private boolean digits() {
+        int start = position;
+        while (position < length && isDigit(json.charAt(position))) position++;
+        return position > start;
+    }
+
+    private void literal(String literal) {
+        int end = position + literal.length();
+        if (end > length || !literal.contentEquals(json.subSequence(position, end))) throw error(format("Expected '%s'", literal));
+        position = end;
+    }
+
+    private void whitespace() {
+        while (position < length && isWhitespace(json.charAt(position))) position++;
+    }
+
+    // The same whitespace the grammar ignores, so documents with form feeds or unicode separators between tokens
+    // still parse. JsonFeeder works on bytes and only skips the four characters RFC 8259 allows
+    static boolean isWhitespace(int c) {
+        return Character.isWhitespace(c);
+    }
+
+    private boolean consume(char c) {
+        if (position < length && json.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) throw error(format("Expected '%s'", c));
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message, position);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
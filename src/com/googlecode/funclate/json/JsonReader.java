@@ -0,0 +1,359 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.Model;
+import com.googlecode.funclate.ModelFactory;
+import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.Unchecked;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static java.lang.String.format;
+
+public class JsonReader implements Closeable {
+    public enum Event {START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, KEY, VALUE, END_DOCUMENT}
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char OBJECT = '{';
+    private static final char ARRAY = '[';
+    private final Reader reader;
+    private final char[] buffer;
+    private final NumberDecoding numbers;
+    private final StringBuilder token = new StringBuilder();
+    private int position;
+    private int limit;
+    private long consumed;
+    private char[] containers = new char[16];
+    private int[] members = new int[16];
+    private int depth;
+    private boolean started;
+    private boolean afterKey;
+    private Event event;
+    private String key;
+    private Object value;
+
+    public JsonReader(Reader reader, int bufferSize, NumberDecoding numbers) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.numbers = numbers;
+    }
+
+    public JsonReader(Reader reader, int bufferSize) {
+        this(reader, bufferSize, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public JsonReader(Reader reader, NumberDecoding numbers) {
+        this(reader, DEFAULT_BUFFER_SIZE, numbers);
+    }
+
+    public JsonReader(Reader reader) {
+        this(reader, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public JsonReader(InputStream inputStream, NumberDecoding numbers) {
+        this(new InputStreamReader(inputStream, UTF_8), numbers);
+    }
+
+    public JsonReader(InputStream inputStream) {
+        this(inputStream, NumberDecoding.BIG_DECIMAL);
+    }
+
+    public Event next() {
+        whitespace();
+        event = nextEvent();
+        return event;
+    }
+
+    public Event event() {
+        return event;
+    }
+
+    public String key() {
+        if (event != Event.KEY) throw new IllegalStateException(format("No key at %s", event));
+        return key;
+    }
+
+    public Object value() {
+        if (event != Event.VALUE) throw new IllegalStateException(format("No value at %s", event));
+        return value;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public void skip() {
+        if (event == Event.KEY) {
+            next();
+        }
+        if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+            skipContainer();
+            depth--;
+            event = event == Event.START_OBJECT ? Event.END_OBJECT : Event.END_ARRAY;
+        }
+    }
+
+    public Object read() {
+        return read(JsonParser.maps);
+    }
+
+    public Object read(JsonBuilder<?, ?> builder) {
+        JsonBuilder<Object, Object> values = cast(builder);
+        if (event == Event.KEY) return materialise(next(), values);
+        return materialise(event, values);
+    }
+
+    // The built-in factories build their models as the values are read, any other factory is handed the read map
+    public Model read(ModelFactory factory) {
+        JsonBuilder<?, ?> builder = ModelFactory.methods.jsonBuilder(factory);
+        Object value = read(builder == null ? JsonParser.maps : builder);
+        if (value instanceof Model) return (Model) value;
+        if (value instanceof Map) return factory.create(Unchecked.<Map<String, Object>>cast(value));
+        throw new IllegalStateException(format("Expected an object but found %s", value));
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Event nextEvent() {
+        if (depth == 0) {
+            if (!started) {
+                started = true;
+                return startValue();
+            }
+            if (peek() < 0) return Event.END_DOCUMENT;
+            throw error("Expected end of input");
+        }
+        int current = depth - 1;
+        if (containers[current] == OBJECT) {
+            if (afterKey) {
+                afterKey = false;
+                expect(':');
+                whitespace();
+                return startValue();
+            }
+            if (peek() == '}') {
+                position++;
+                depth--;
+                return Event.END_OBJECT;
+            }
+            if (members[current]++ > 0) {
+                expect(',');
+                whitespace();
+            }
+            expect('"');
+            readString();
+            key = JsonParser.symbolTable().intern(token, 0, token.length());
+            afterKey = true;
+            return Event.KEY;
+        }
+        if (peek() == ']') {
+            position++;
+            depth--;
+            return Event.END_ARRAY;
+        }
+        if (members[current]++ > 0) {
+            expect(',');
+            whitespace();
+        }
+        return startValue();
+    }
+
+    private Event startValue() {
+        int c = peek();
+        switch (c) {
+            case '{': position++; push(OBJECT); return Event.START_OBJECT;
+            case '[': position++; push(ARRAY); return Event.START_ARRAY;
+            case '"': position++; value = string(); return Event.VALUE;
+            case 't': literal("true"); value = Boolean.TRUE; return Event.VALUE;
+            case 'f': literal("false"); value = Boolean.FALSE; return Event.VALUE;
+            case 'n': literal("null"); value = null; return Event.VALUE;
+            default:
+                if (c == '-' || isDigit(c)) {
+                    value = number();
+                    return Event.VALUE;
+                }
+                if (c < 0) throw error("Expected a value");
+                throw error(format("Unexpected character '%s'", (char) c));
+        }
+    }
+
+    private Object materialise(Event event, JsonBuilder<Object, Object> builder) {
+        switch (event) {
+            case VALUE:
+                return value;
+            case START_OBJECT:
+                Object object = builder.startObject();
+                for (Event next = next(); next != Event.END_OBJECT; next = next()) {
+                    String name = key;
+                    object = builder.field(object, name, materialise(next(), builder));
+                }
+                return builder.endObject(object);
+            case START_ARRAY:
+                Object array = builder.startArray();
+                for (Event next = next(); next != Event.END_ARRAY; next = next()) {
+                    array = builder.element(array, materialise(next, builder));
+                }
+                return builder.endArray(array);
+            default:
+                throw new IllegalStateException(format("Can not read a value at %s", event));
+        }
+    }
+
+    private void skipContainer() {
+        int level = 1;
+        while (level > 0) {
+            int c = readChar();
+            switch (c) {
+                case '"': skipString(); break;
+                case '{': case '[': level++; break;
+                case '}': case ']': level--; break;
+                case -1: throw error("Unexpected end of input");
+            }
+        }
+    }
+
+    private void skipString() {
+        for (int c = readChar(); c != '"'; c = readChar()) {
+            if (c == '\\') c = readChar();
+            if (c < 0) throw error("Unterminated string");
+        }
+    }
+
+    private String string() {
+        readString();
+        return token.toString();
+    }
+
+    private void readString() {
+        token.setLength(0);
+        while (true) {
+            if (position >= limit && !fill()) throw error("Unterminated string");
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') break;
+                position++;
+            }
+            token.append(buffer, start, position - start);
+            if (position >= limit) continue;
+            if (buffer[position++] == '"') return;
+            escape();
+        }
+    }
+
+    private void escape() {
+        int escaped = readChar();
+        switch (escaped) {
+            case '"': token.append('"'); break;
+            case '\\': token.append('\\'); break;
+            case '/': token.append('/'); break;
+            case 'b': token.append('\b'); break;
+            case 'f': token.append('\f'); break;
+            case 'n': token.append('\n'); break;
+            case 'r': token.append('\r'); break;
+            case 't': token.append('\t'); break;
+            case 'u':
+                int unicode = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(readChar(), 16);
+                    if (digit < 0) throw error("Invalid unicode escape");
+                    unicode = (unicode << 4) | digit;
+                }
+                token.append((char) unicode);
+                break;
+            default:
+                throw error(escaped < 0 ? "Unterminated string" : format("Invalid escape '\\%s'", (char) escaped));
+        }
+    }
+
+    private Number number() {
+        token.setLength(0);
+        if (peek() == '-') token.append((char) readChar());
+        digits();
+        if (peek() == '.') {
+            token.append((char) readChar());
+            digits();
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            token.append((char) readChar());
+            if (peek() == '+' || peek() == '-') token.append((char) readChar());
+            digits();
+        }
+        // The token buffer is reused, so a LazyNumber gets its own copy of the text to hold on to
+        if (numbers == NumberDecoding.LAZY) return numbers.decode(token.toString(), 0, token.length());
+        return numbers.decode(token, 0, token.length());
+    }
+
+    private void digits() {
+        if (!isDigit(peek())) throw error("Expected a digit");
+        while (isDigit(peek())) token.append((char) readChar());
+    }
+
+    private void literal(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (peek() != literal.charAt(i)) throw error(format("Expected '%s'", literal));
+            position++;
+        }
+    }
+
+    private void push(char container) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            members = Arrays.copyOf(members, depth * 2);
+        }
+        containers[depth] = container;
+        members[depth] = 0;
+        depth++;
+    }
+
+    private void whitespace() {
+        while (JsonParser.isWhitespace(peek())) position++;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error(format("Expected '%s'", c));
+        position++;
+    }
+
+    private int peek() {
+        if (position >= limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private int readChar() {
+        if (position >= limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private boolean fill() {
+        try {
+            consumed += limit;
+            position = 0;
+            limit = 0;
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) return false;
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message, consumed + position);
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+}
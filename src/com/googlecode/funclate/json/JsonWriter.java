@@ -0,0 +1,5 @@
+package com.googlecode.funclate.json;
+
+public interface JsonWriter<T> {
+    void write(T value, Appendable appendable) throws Exception;
+}
@@ -0,0 +1,59 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Unchecked;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class JsonWriters {
+    private final List<Pair<Class<?>, JsonWriter<Object>>> writers = new CopyOnWriteArrayList<Pair<Class<?>, JsonWriter<Object>>>();
+    private volatile ConcurrentMap<Class<?>, JsonWriter<Object>> resolved = new ConcurrentHashMap<Class<?>, JsonWriter<Object>>();
+    private final JsonWriter<Object> nullWriter;
+    private final JsonWriter<Object> noMatchWriter;
+
+    JsonWriters(JsonWriter<Object> nullWriter, JsonWriter<Object> noMatchWriter) {
+        this.nullWriter = nullWriter;
+        this.noMatchWriter = noMatchWriter;
+    }
+
+    // Later registrations take precedence, same as MatchingRenderer
+    JsonWriters add(Class<?> aClass, JsonWriter<?> writer) {
+        writers.add(0, Pair.<Class<?>, JsonWriter<Object>>pair(aClass, Unchecked.<JsonWriter<Object>>cast(writer)));
+        resolved = new ConcurrentHashMap<Class<?>, JsonWriter<Object>>();
+        return this;
+    }
+
+    JsonWriter<Object> writerFor(Object value) {
+        if (value == null) return nullWriter;
+        ConcurrentMap<Class<?>, JsonWriter<Object>> cache = resolved;
+        Class<?> aClass = value.getClass();
+        JsonWriter<Object> writer = cache.get(aClass);
+        if (writer == null) {
+            writer = resolve(aClass);
+            cache.put(aClass, writer);
+        }
+        return writer;
+    }
+
+    <A extends Appendable> A write(Object value, A appendable) {
+        try {
+            writerFor(value).write(value, appendable);
+            return appendable;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    private JsonWriter<Object> resolve(Class<?> aClass) {
+        for (Pair<Class<?>, JsonWriter<Object>> writer : writers) {
+            if (writer.first().isAssignableFrom(aClass)) return writer.second();
+        }
+        return noMatchWriter;
+    }
+}
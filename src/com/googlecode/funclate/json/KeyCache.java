@@ -0,0 +1,129 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.LazyException;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class KeyCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int MAX_KEY_LENGTH = 128;
+    private final ConcurrentMap<String, Key> keys = new ConcurrentHashMap<String, Key>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicReferenceArray<String> seen;
+    private final AtomicReferenceArray<Key> ring;
+    private final AtomicInteger hand = new AtomicInteger();
+
+    public KeyCache(int capacity) {
+        this.seen = new AtomicReferenceArray<String>(capacity);
+        this.ring = new AtomicReferenceArray<Key>(capacity);
+    }
+
+    public KeyCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public <A extends Appendable> A write(String key, A appendable) {
+        try {
+            Key cached = keys.get(key);
+            if (cached == null) {
+                misses.incrementAndGet();
+                cached = cache(key);
+                if (cached == null) {
+                    Strings.toString(key, appendable).append(':');
+                    return appendable;
+                }
+            } else {
+                hits.incrementAndGet();
+                if (!cached.referenced) cached.referenced = true;
+            }
+            if (appendable instanceof Utf8Sink) ((Utf8Sink) appendable).write(cached.bytes);
+            else appendable.append(cached.json);
+            return appendable;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            seen.set(i, null);
+            ring.set(i, null);
+        }
+        keys.clear();
+        hand.set(0);
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    // A key is only encoded and kept once it has been seen twice, so keys that show up once (ids, map keys built from
+    // data) cost nothing more than writing them. Admitted keys go round a CLOCK: the hand passes over keys hit since its
+    // last sweep, clearing their mark, and replaces the first one that was not. Everything is compare and set so
+    // neither hits nor misses take a lock
+    private Key cache(String key) {
+        if (key.length() > MAX_KEY_LENGTH || ring.length() == 0) return null;
+        int index = (key.hashCode() & Integer.MAX_VALUE) % seen.length();
+        if (!key.equals(seen.get(index))) {
+            seen.set(index, key);
+            return null;
+        }
+        Key encoded = new Key(key, Strings.toString(key, new StringBuilder(key.length() + 3)).append(':').toString());
+        while (true) {
+            int slot = (hand.getAndIncrement() & Integer.MAX_VALUE) % ring.length();
+            Key current = ring.get(slot);
+            if (current != null && current.referenced) {
+                current.referenced = false;
+                continue;
+            }
+            if (!ring.compareAndSet(slot, current, encoded)) continue;
+            if (current != null && keys.remove(current.name, current)) evictions.incrementAndGet();
+            Key existing = keys.putIfAbsent(key, encoded);
+            return existing == null ? encoded : existing;
+        }
+    }
+
+    private static class Key {
+        private final String name;
+        private final String json;
+        private final byte[] bytes;
+        private volatile boolean referenced;
+
+        private Key(String name, String json) {
+            this.name = name;
+            this.json = json;
+            this.bytes = utf8(json);
+        }
+
+        private static byte[] utf8(String value) {
+            try {
+                return value.getBytes("UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw LazyException.lazyException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.googlecode.funclate.json;
+
+import java.math.BigDecimal;
+
+// Holds on to the document it was parsed from, not a copy of its own digits, so while any LazyNumber is reachable
+// the whole source stays in memory, including a memory mapped Utf8Source. Decode the numbers you keep long term
+public class LazyNumber extends Number {
+    private final CharSequence json;
+    private final int start;
+    private final int end;
+    private transient Number value;
+    private transient BigDecimal decimal;
+
+    public LazyNumber(CharSequence json, int start, int end) {
+        this.json = json;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    public long longValue() {
+        Number number = value();
+        if (number instanceof Long) return number.longValue();
+        return toBigDecimal().longValue();
+    }
+
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    public double doubleValue() {
+        return value().doubleValue();
+    }
+
+    public BigDecimal toBigDecimal() {
+        if (decimal == null) decimal = new BigDecimal(toString());
+        return decimal;
+    }
+
+    // Decoded the first time it is asked for, a plain field is enough because every thread decodes the same value
+    private Number value() {
+        if (value == null) value = NumberDecoding.longOrDouble(json, start, end);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return json.subSequence(start, end).toString();
+    }
+
+    // Equal to another LazyNumber with the same numeric value whatever its text, so 1.50 equals 1.5 and 1e2 equals
+    // 100. Like Long and BigDecimal it is never equal to a different kind of Number
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LazyNumber && toBigDecimal().compareTo(((LazyNumber) other).toBigDecimal()) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return toBigDecimal().stripTrailingZeros().hashCode();
+    }
+}
@@ -0,0 +1,93 @@
+package com.googlecode.funclate.json;
+
+import java.math.BigDecimal;
+
+public enum NumberDecoding {
+    BIG_DECIMAL {
+        public Number decode(CharSequence json, int start, int end) {
+            return new BigDecimal(json.subSequence(start, end).toString());
+        }
+    },
+    LONG_OR_DOUBLE {
+        public Number decode(CharSequence json, int start, int end) {
+            return longOrDouble(json, start, end);
+        }
+    },
+    LAZY {
+        public Number decode(CharSequence json, int start, int end) {
+            return new LazyNumber(json, start, end);
+        }
+    };
+
+    private static final int MAXIMUM_LONG_DIGITS = 18;
+    private static final BigDecimal MINIMUM_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAXIMUM_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final int MAXIMUM_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    public abstract Number decode(CharSequence json, int start, int end);
+
+    // Integers that fit in 18 digits are accumulated straight into a long. Decimals with at most 15
+    // significant digits and a small exponent are exact as one double multiply or divide, everything
+    // else goes through Double.parseDouble, or BigDecimal for integers that do not fit in a long
+    static Number longOrDouble(CharSequence json, int start, int end) {
+        int position = start;
+        boolean negative = json.charAt(position) == '-';
+        if (negative) position++;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean integral = true;
+        for (; position < end; position++) {
+            char c = json.charAt(position);
+            if (c == '.') {
+                integral = false;
+                continue;
+            }
+            if (c == 'e' || c == 'E') {
+                integral = false;
+                break;
+            }
+            if (digits > 0 || c != '0') {
+                if (++digits > MAXIMUM_LONG_DIGITS) return slow(json, start, end, integral && !contains(json, position, end));
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            if (!integral) exponent--;
+        }
+        if (integral) return negative ? -mantissa : mantissa;
+        if (position < end) exponent += exponent(json, position + 1, end);
+        if (digits <= MAXIMUM_EXACT_DIGITS && exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        return slow(json, start, end, false);
+    }
+
+    private static int exponent(CharSequence json, int position, int end) {
+        boolean negative = json.charAt(position) == '-';
+        if (negative || json.charAt(position) == '+') position++;
+        int exponent = 0;
+        for (; position < end; position++) {
+            exponent = Math.min(exponent * 10 + (json.charAt(position) - '0'), 100000);
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    private static boolean contains(CharSequence json, int position, int end) {
+        for (; position < end; position++) {
+            char c = json.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') return true;
+        }
+        return false;
+    }
+
+    private static Number slow(CharSequence json, int start, int end, boolean integral) {
+        String value = json.subSequence(start, end).toString();
+        if (!integral) return Double.parseDouble(value);
+        BigDecimal decimal = new BigDecimal(value);
+        if (decimal.compareTo(MINIMUM_LONG) >= 0 && decimal.compareTo(MAXIMUM_LONG) <= 0) return decimal.longValue();
+        return decimal;
+    }
+}
@@ -0,0 +1,60 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.LazyException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+class ParallelJson {
+    static final int THRESHOLD = 2048;
+    static final int MINIMUM_CHUNK = 512;
+
+    static boolean isLarge(Object value) {
+        if (value instanceof List && value instanceof RandomAccess) return ((List<?>) value).size() >= THRESHOLD && StreamingJson.writesArray(value);
+        if (value instanceof Map) return ((Map<?, ?>) value).size() >= THRESHOLD && StreamingJson.writesObject(value);
+        return false;
+    }
+
+    static <A extends Appendable> A toJson(Object value, A appendable, Executor executor, int parallelism) {
+        if (!isLarge(value)) return StreamingJson.toJson(value, appendable);
+        if (value instanceof Map) return toJson(((Map<?, ?>) value).entrySet().toArray(), appendable, executor, parallelism, '{', '}');
+        return toJson(((List<?>) value).toArray(), appendable, executor, parallelism, '[', ']');
+    }
+
+    private static <A extends Appendable> A toJson(Object[] values, A appendable, Executor executor, int parallelism, char start, char end) {
+        int chunks = Math.max(1, Math.min(parallelism * 4, values.length / MINIMUM_CHUNK));
+        Chunks<String> tasks = new Chunks<String>(executor);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            tasks.submit(chunk(values, (int) ((long) values.length * chunk / chunks), (int) ((long) values.length * (chunk + 1) / chunks)));
+        }
+        try {
+            appendable.append(start);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                if (chunk > 0) appendable.append(StreamingJson.SEPARATOR);
+                appendable.append(tasks.get(chunk));
+            }
+            appendable.append(end);
+            return appendable;
+        } catch (IOException e) {
+            tasks.cancel();
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    private static Callable<String> chunk(final Object[] values, final int from, final int to) {
+        return new Callable<String>() {
+            public String call() throws Exception {
+                StringBuilder builder = new StringBuilder();
+                for (int i = from; i < to; i++) {
+                    if (i > from) builder.append(StreamingJson.SEPARATOR);
+                    StreamingJson.toJson(values[i], builder);
+                }
+                return builder.toString();
+            }
+        };
+    }
+}
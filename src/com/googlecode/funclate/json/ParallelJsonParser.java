@@ -0,0 +1,81 @@
+package com.googlecode.funclate.json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+class ParallelJsonParser {
+    static final int THRESHOLD = 1024 * 1024;
+
+    static boolean isLarge(CharSequence json) {
+        return json.length() >= THRESHOLD;
+    }
+
+    // One sequential pass finds top level commas without decoding anything, tracking only nesting depth and
+    // whether we are inside a string, then the ranges between the chosen commas are parsed concurrently
+    static Object array(CharSequence json, JsonBuilder<?, ?> builder, NumberDecoding numbers, SymbolTable strings, Executor executor, int parallelism) {
+        int length = json.length();
+        int open = whitespace(json, 0);
+        if (open >= length || json.charAt(open) != '[') return JsonParser.array(json, builder, numbers, strings);
+        int target = Math.max(1, (length - open) / (parallelism * 4));
+        List<Integer> cuts = new ArrayList<Integer>();
+        cuts.add(open);
+        int close = -1;
+        int depth = 0;
+        for (int i = open + 1, next = i + target; i < length; i++) {
+            char c = json.charAt(i);
+            if (c == '"') i = closingQuote(json, i + 1);
+            else if (c == '[' || c == '{') depth++;
+            else if (c == ']' || c == '}') {
+                if (depth == 0) {
+                    close = i;
+                    break;
+                }
+                depth--;
+            } else if (c == ',' && depth == 0 && i >= next) {
+                cuts.add(i);
+                next = i + target;
+            }
+        }
+        if (close < 0 || json.charAt(close) != ']') throw new JsonParseException("Expected ']'", close < 0 ? length : close);
+        if (cuts.size() == 1) return JsonParser.array(json, builder, numbers, strings);
+        if (whitespace(json, close + 1) < length) throw new JsonParseException("Expected end of input", whitespace(json, close + 1));
+        cuts.add(close);
+
+        Chunks<List<Object>> chunks = new Chunks<List<Object>>(executor);
+        for (int chunk = 0; chunk < cuts.size() - 1; chunk++) {
+            chunks.submit(elements(json, cuts.get(chunk) + 1, cuts.get(chunk + 1), builder, numbers, strings));
+        }
+        JsonBuilder<Object, Object> arrays = cast(builder);
+        Object array = arrays.startArray();
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            for (Object element : chunks.get(chunk)) array = arrays.element(array, element);
+        }
+        return arrays.endArray(array);
+    }
+
+    private static Callable<List<Object>> elements(final CharSequence json, final int start, final int end, final JsonBuilder<?, ?> builder, final NumberDecoding numbers, final SymbolTable strings) {
+        return new Callable<List<Object>>() {
+            public List<Object> call() throws Exception {
+                return JsonParser.elements(json, start, end, builder, numbers, strings);
+            }
+        };
+    }
+
+    private static int closingQuote(CharSequence json, int position) {
+        for (int length = json.length(); position < length; position++) {
+            char c = json.charAt(position);
+            if (c == '"') return position;
+            if (c == '\\') position++;
+        }
+        throw new JsonParseException("Unterminated string", json.length());
+    }
+
+    private static int whitespace(CharSequence json, int position) {
+        while (position < json.length() && JsonParser.isWhitespace(json.charAt(position))) position++;
+        return position;
+    }
+}
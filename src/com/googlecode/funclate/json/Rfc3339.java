@@ -0,0 +1,99 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.time.Dates;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import static java.lang.Math.floorDiv;
+
+public class Rfc3339 {
+    private static final long MILLISECONDS_PER_DAY = 86400000L;
+    // SimpleDateFormat switches to the Julian calendar before 1582-10-15, and four digit years end at 9999
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+    private static final long END_OF_YEAR_9999 = 253402300799999L;
+
+    public static <A extends Appendable> A toJson(long millis, A appendable) {
+        return toJson(millis, 0, appendable);
+    }
+
+    // Writes the local time at the offset followed by the offset. RFC 3339 offsets stop at minutes, so the rare
+    // historical offset with seconds in it is written in UTC instead
+    public static <A extends Appendable> A toJson(long millis, int offsetSeconds, A appendable) {
+        if (offsetSeconds % 60 != 0) return toJson(millis, 0, appendable);
+        try {
+            long local = millis + offsetSeconds * 1000L;
+            if (local < GREGORIAN_CUTOVER || local > END_OF_YEAR_9999) {
+                String utc = Dates.RFC3339withMilliseconds().format(new Date(local));
+                appendable.append('"').append(utc, 0, utc.length() - 1);
+                offset(offsetSeconds, appendable).append('"');
+                return appendable;
+            }
+            long days = floorDiv(local, MILLISECONDS_PER_DAY);
+            int millisOfDay = (int) (local - days * MILLISECONDS_PER_DAY);
+
+            long shifted = days + 719468;
+            long era = floorDiv(shifted, 146097);
+            int dayOfEra = (int) (shifted - era * 146097);
+            int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            int monthIndex = (5 * dayOfYear + 2) / 153;
+            int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+            int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+            int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+            appendable.append('"');
+            digits(year, 4, appendable).append('-');
+            digits(month, 2, appendable).append('-');
+            digits(day, 2, appendable).append('T');
+            digits(millisOfDay / 3600000, 2, appendable).append(':');
+            digits(millisOfDay / 60000 % 60, 2, appendable).append(':');
+            digits(millisOfDay / 1000 % 60, 2, appendable).append('.');
+            digits(millisOfDay % 1000, 3, appendable);
+            offset(offsetSeconds, appendable).append('"');
+            return appendable;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    static void addJavaTimeWriters(JsonWriters writers) {
+        writers.add(Instant.class, new JsonWriter<Instant>() {
+            public void write(Instant value, Appendable appendable) throws Exception {
+                toJson(value.toEpochMilli(), appendable);
+            }
+        });
+        writers.add(OffsetDateTime.class, new JsonWriter<OffsetDateTime>() {
+            public void write(OffsetDateTime value, Appendable appendable) throws Exception {
+                toJson(value.toInstant().toEpochMilli(), value.getOffset().getTotalSeconds(), appendable);
+            }
+        });
+        writers.add(ZonedDateTime.class, new JsonWriter<ZonedDateTime>() {
+            public void write(ZonedDateTime value, Appendable appendable) throws Exception {
+                toJson(value.toInstant().toEpochMilli(), value.getOffset().getTotalSeconds(), appendable);
+            }
+        });
+    }
+
+    private static <A extends Appendable> A offset(int offsetSeconds, A appendable) throws IOException {
+        if (offsetSeconds == 0) {
+            appendable.append('Z');
+            return appendable;
+        }
+        int minutes = Math.abs(offsetSeconds) / 60;
+        appendable.append(offsetSeconds < 0 ? '-' : '+');
+        digits(minutes / 60, 2, appendable).append(':');
+        return digits(minutes % 60, 2, appendable);
+    }
+
+    private static <A extends Appendable> A digits(int value, int width, A appendable) throws IOException {
+        for (int divisor = width == 4 ? 1000 : width == 3 ? 100 : 10; divisor > 0; divisor /= 10) {
+            appendable.append((char) ('0' + value / divisor % 10));
+        }
+        return appendable;
+    }
+}
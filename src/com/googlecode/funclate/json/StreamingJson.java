@@ -1,86 +1,287 @@
 package com.googlecode.funclate.json;
 
-import com.googlecode.totallylazy.Iterators;
-import com.googlecode.totallylazy.Mapper;
-import com.googlecode.totallylazy.annotations.multimethod;
-import com.googlecode.totallylazy.multi;
-import com.googlecode.totallylazy.time.Dates;
+import com.googlecode.funclate.JsonModel;
+import com.googlecode.funclate.Model;
+import com.googlecode.funclate.MutableModel;
+import com.googlecode.funclate.PersistentModel;
+import com.googlecode.totallylazy.Maps;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.collections.PersistentList;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 
 import static com.googlecode.totallylazy.Appendables.append;
 
 public class StreamingJson {
     public static final String SEPARATOR = ",";
+    private static final int CHECKPOINT = 256;
 
-    private static multi multi;
+    private static final JsonWriter<Iterable<?>> iterableWriter = new JsonWriter<Iterable<?>>() {
+        public void write(Iterable<?> value, Appendable appendable) {
+            toJson(value, appendable);
+        }
+    };
+
+    private static final JsonWriter<Map<?, ?>> mapWriter = new JsonWriter<Map<?, ?>>() {
+        public void write(Map<?, ?> value, Appendable appendable) {
+            toJson(value, appendable);
+        }
+    };
+
+    private static final JsonWriters writers = new JsonWriters(new JsonWriter<Object>() {
+        public void write(Object value, Appendable appendable) {
+            toJson((Void) null, appendable);
+        }
+    }, new JsonWriter<Object>() {
+        public void write(Object value, Appendable appendable) {
+            toJson(value.toString(), appendable);
+        }
+    }).
+            add(Iterator.class, new JsonWriter<Iterator<?>>() {
+                public void write(Iterator<?> value, Appendable appendable) {
+                    toJson(value, appendable);
+                }
+            }).
+            add(Iterable.class, iterableWriter).
+            add(Map.Entry.class, new JsonWriter<Map.Entry<?, ?>>() {
+                public void write(Map.Entry<?, ?> value, Appendable appendable) {
+                    toJson(value, appendable);
+                }
+            }).
+            add(Map.class, mapWriter).
+            add(Date.class, new JsonWriter<Date>() {
+                public void write(Date value, Appendable appendable) {
+                    toJson(value, appendable);
+                }
+            }).
+            add(Boolean.class, new JsonWriter<Boolean>() {
+                public void write(Boolean value, Appendable appendable) {
+                    toJson(value, appendable);
+                }
+            }).
+            add(Number.class, new JsonWriter<Number>() {
+                public void write(Number value, Appendable appendable) {
+                    toJson(value, appendable);
+                }
+            }).
+            add(CharSequence.class, new JsonWriter<CharSequence>() {
+                public void write(CharSequence value, Appendable appendable) {
+                    toJson(value, appendable);
+                }
+            });
+
+    static {
+        Rfc3339.addJavaTimeWriters(writers);
+    }
+
+    private static final KeyCache keys = new KeyCache();
+
+    public static KeyCache keyCache() {
+        return keys;
+    }
+
+    public static <T> void register(Class<T> aClass, JsonWriter<? super T> writer) {
+        writers.add(aClass, writer);
+    }
+
+    static boolean writesArray(Object value) {
+        return writers.writerFor(value) == (JsonWriter<?>) iterableWriter;
+    }
+
+    static boolean writesObject(Object value) {
+        return writers.writerFor(value) == (JsonWriter<?>) mapWriter;
+    }
 
     public static <A extends Appendable> A toJson(final Object o, final A appendable) {
-        if (multi == null) multi = new multi() { };
-        return multi.<A>methodOption(o, appendable).getOrElse(new Callable<A>() {
-            @Override
-            public A call() throws Exception {
-                return toJson(o.toString(), appendable);
-            }
-        });
+        return writers.write(o, appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final CharSequence charSequence, final A appendable) {
-        return append(Strings.toString(charSequence), appendable);
+        return Strings.toString(charSequence, appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Iterator<?> iterator, final A appendable) {
         return iterate(iterator, appendable, "[", SEPARATOR, "]");
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Iterable<?> iterable, final A appendable) {
         if (iterable instanceof Map) return toJson((Map) iterable, appendable);
         return toJson(iterable.iterator(), appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Map<?, ?> map, final A appendable) {
         return iterate(map.entrySet().iterator(), appendable, "{", SEPARATOR, "}");
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Map.Entry<?, ?> entry, final A appendable) {
-        return toJson(entry.getValue(), append(':', append(Strings.toString(String.valueOf(entry.getKey())), appendable)));
+        return toJson(entry.getValue(), keys.write(String.valueOf(entry.getKey()), appendable));
+    }
+
+    public static <A extends Appendable> A toJson(final Model model, final A appendable) {
+        return model(model, appendable, null);
+    }
+
+    // Fragments are reused for as long as the PersistentModel or PersistentList instance is alive,
+    // so only pass a cache when the values held inside persistent models are not mutated
+    public static <A extends Appendable> A toJson(final Model model, final A appendable, final FragmentCache cache) {
+        return append(toJson(model, cache), appendable);
+    }
+
+    static String toJson(final Model model, final FragmentCache cache) {
+        Fragments fragments = new Fragments(cache);
+        model(model, fragments.buffer, fragments);
+        return fragments.commit();
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Void aVoid, final A appendable) {
         return append("null", appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Number number, final A appendable) {
         return append(number.toString(), appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Date date, final A appendable) {
-        return append(Strings.quote(Dates.RFC3339withMilliseconds().format(date)), appendable);
+        return Rfc3339.toJson(date.getTime(), appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A toJson(final Boolean bool, final A appendable) {
         return append(bool.toString(), appendable);
     }
 
+    private static <A extends Appendable> A model(final Model model, final A appendable, final Fragments fragments) {
+        if (model instanceof JsonModel) return ((JsonModel) model).toJson(appendable);
+        if (model instanceof MutableModel) return fields(model.pairs(), appendable, fragments);
+        if (!(model instanceof PersistentModel)) return fields(lastValues(model.pairs()), appendable, fragments);
+        if (fragments == null) return fields(((PersistentModel) model).toPersistentMap(), appendable, null);
+        if (fragments.reuse(model)) return appendable;
+        int start = fragments.start();
+        fields(((PersistentModel) model).toPersistentMap(), appendable, fragments);
+        fragments.record(model, start);
+        return appendable;
+    }
+
+    // Other models may repeat a key in pairs(), where toMap keeps the last value in the place the key first appeared
+    private static Iterable<Pair<String, Object>> lastValues(final Iterable<? extends Pair<String, Object>> pairs) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Pair<String, Object> pair : pairs) values.put(pair.first(), pair.second());
+        return Maps.pairs(values);
+    }
+
+    private static <A extends Appendable> A fields(final Iterable<? extends Pair<String, Object>> pairs, final A appendable, final Fragments fragments) {
+        append('{', appendable);
+        boolean first = true;
+        for (Pair<String, Object> pair : pairs) {
+            if (!first) append(SEPARATOR, appendable);
+            first = false;
+            field(pair.second(), keys.write(String.valueOf(pair.first()), appendable), fragments);
+        }
+        return append('}', appendable);
+    }
+
+    // Mirrors Model.methods.toMap: nested models become objects and PersistentLists hold their values newest first,
+    // anything else goes through the writers, where a Model keeps its baseline quoted toString()
+    private static <A extends Appendable> A field(final Object value, final A appendable, final Fragments fragments) {
+        if (value instanceof Model) return model((Model) value, appendable, fragments);
+        if (value instanceof PersistentList) return fieldValues((PersistentList<?>) value, appendable, fragments);
+        if (value instanceof List) return fieldValues(((List<?>) value).iterator(), appendable, fragments);
+        return toJson(value, appendable);
+    }
+
+    private static <A extends Appendable> A fieldValues(final Iterator<?> values, final A appendable, final Fragments fragments) {
+        append('[', appendable);
+        if (values.hasNext()) field(values.next(), appendable, fragments);
+        while (values.hasNext()) {
+            field(values.next(), append(SEPARATOR, appendable), fragments);
+        }
+        return append(']', appendable);
+    }
+
+    private static <A extends Appendable> A fieldValues(final PersistentList<?> values, final A appendable, final Fragments fragments) {
+        if (fragments == null) return reversed(values, appendable, null);
+        if (fragments.reuse(values)) return appendable;
+        int start = fragments.start();
+        reversed(values, appendable, fragments);
+        fragments.record(values, start);
+        return appendable;
+    }
+
+    // Writes oldest first without copying the list: one pass remembers every CHECKPOINT-th cell, then the stretches
+    // between them are written last to first, each reversed through one small buffer
+    private static <A extends Appendable> A reversed(final PersistentList<?> list, final A appendable, final Fragments fragments) {
+        List<PersistentList<?>> checkpoints = new ArrayList<PersistentList<?>>();
+        int count = 0;
+        for (PersistentList<?> cell = list; !cell.isEmpty(); cell = cell.tail()) {
+            if (count++ % CHECKPOINT == 0) checkpoints.add(cell);
+        }
+        Object[] stretch = new Object[Math.min(count, CHECKPOINT)];
+        append('[', appendable);
+        for (int checkpoint = checkpoints.size() - 1; checkpoint >= 0; checkpoint--) {
+            int size = 0;
+            for (PersistentList<?> cell = checkpoints.get(checkpoint); size < stretch.length && !cell.isEmpty(); cell = cell.tail()) {
+                stretch[size++] = cell.head();
+            }
+            while (size > 0) {
+                field(stretch[--size], appendable, fragments);
+                if (checkpoint > 0 || size > 0) append(SEPARATOR, appendable);
+            }
+        }
+        return append(']', appendable);
+    }
+
     private static <A extends Appendable> A iterate(final Iterator<?> iterator, final A appendable, String start, String separator, String end) {
-        return Iterators.appendTo(Iterators.map(iterator, new Mapper<Object, String>() {
-            @Override
-            public String call(Object o) throws Exception {
-                toJson(o, appendable);
-                return "";
+        append(start, appendable);
+        if (iterator.hasNext()) toJson(iterator.next(), appendable);
+        while (iterator.hasNext()) {
+            toJson(iterator.next(), append(separator, appendable));
+        }
+        return append(end, appendable);
+    }
+
+    // Writes a whole document into one buffer on a miss, nested values are cached as offsets into it
+    private static class Fragments {
+        private final FragmentCache cache;
+        private final StringBuilder buffer = new StringBuilder();
+        private Object[] values = new Object[16];
+        private int[] offsets = new int[32];
+        private int size;
+
+        private Fragments(FragmentCache cache) {
+            this.cache = cache;
+        }
+
+        private boolean reuse(Object value) {
+            FragmentCache.Fragment fragment = cache.fragment(value);
+            if (fragment == null) return false;
+            fragment.appendTo(buffer);
+            return true;
+        }
+
+        private int start() {
+            return buffer.length();
+        }
+
+        private void record(Object value, int start) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 4);
             }
-        }), appendable, start, separator, end);
+            values[size] = value;
+            offsets[size * 2] = start;
+            offsets[size * 2 + 1] = buffer.length();
+            size++;
+        }
+
+        private String commit() {
+            String document = buffer.toString();
+            if (size > 0) cache.put(document, values, offsets, size);
+            return document;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,34 +1,62 @@
 package com.googlecode.funclate.json;
 
+import com.googlecode.totallylazy.LazyException;
 import com.googlecode.totallylazy.Mapper;
 
-import static com.googlecode.totallylazy.Sequences.characters;
+import java.io.IOException;
+
 import static java.lang.Integer.parseInt;
-import static java.lang.String.format;
 
 public class Strings {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String[] ESCAPES = escapes();
+
     public static String toString(CharSequence value) {
-        return quote(escape(value));
+        return toString(value, new StringBuilder(value.length() + 2)).toString();
+    }
+
+    public static <A extends Appendable> A toString(CharSequence value, A appendable) {
+        try {
+            appendable.append('"');
+            escape(value, appendable).append('"');
+            return appendable;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
     }
 
     public static String escape(CharSequence value) {
-        return characters(value).map(functions.escape).toString("");
+        return escape(value, new StringBuilder(value.length())).toString();
     }
 
-    public static String escape(Character character) {
-        switch (character) {
-            case '"': return "\\\"";
-            case '\\': return "\\\\";
-            case '\b': return "\\b";
-            case '\n': return "\\n";
-            case '\r': return "\\r";
-            case '\t': return "\\t";
-            default: return character.toString();
+    public static <A extends Appendable> A escape(CharSequence value, A appendable) {
+        try {
+            int length = value.length();
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= ESCAPES.length) continue;
+                String escaped = ESCAPES[c];
+                if (escaped == null) continue;
+                if (start < i) appendable.append(value, start, i);
+                appendable.append(escaped);
+                start = i + 1;
+            }
+            if (start < length) appendable.append(value, start, length);
+            return appendable;
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
         }
     }
 
+    public static String escape(Character character) {
+        char c = character;
+        if (c < ESCAPES.length && ESCAPES[c] != null) return ESCAPES[c];
+        return character.toString();
+    }
+
     public static String quote(CharSequence value) {
-        return format("\"%s\"", value);
+        return new StringBuilder(value.length() + 2).append('"').append(value).append('"').toString();
     }
 
     public static String unescape(CharSequence escaped) {
@@ -46,6 +74,20 @@ public class Strings {
         }
     }
 
+    private static String[] escapes() {
+        String[] escapes = new String['\\' + 1];
+        for (char c = 0; c < 0x20; c++) {
+            escapes[c] = "\\u00" + HEX[c >> 4] + HEX[c & 0xF];
+        }
+        escapes['"'] = "\\\"";
+        escapes['\\'] = "\\\\";
+        escapes['\b'] = "\\b";
+        escapes['\n'] = "\\n";
+        escapes['\r'] = "\\r";
+        escapes['\t'] = "\\t";
+        return escapes;
+    }
+
     public static class functions {
         public static Mapper<Character, String> escape = new Mapper<Character, String>() {
             public String call(Character character) throws Exception {
@@ -0,0 +1,65 @@
+package com.googlecode.funclate.json;
+
+import java.util.Arrays;
+
+public class SymbolTable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_MAXIMUM_LENGTH = 64;
+    // Direct mapped: a colliding symbol simply replaces the old one, so the table never grows and
+    // racing threads can at worst overwrite each other's slot with an equally valid String
+    private final String[] symbols;
+    private final int mask;
+    private final int maximumLength;
+
+    public SymbolTable(int capacity, int maximumLength) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.symbols = new String[size];
+        this.mask = size - 1;
+        this.maximumLength = maximumLength;
+    }
+
+    public SymbolTable(int capacity) {
+        this(capacity, DEFAULT_MAXIMUM_LENGTH);
+    }
+
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public String intern(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + source.charAt(i);
+        return intern(source, start, end, hash);
+    }
+
+    // hash must be the String.hashCode of the characters between start and end
+    public String intern(CharSequence source, int start, int end, int hash) {
+        if (end - start > maximumLength) return source.subSequence(start, end).toString();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String symbol = symbols[slot];
+        if (symbol != null && symbol.hashCode() == hash && matches(symbol, source, start, end)) return symbol;
+        symbol = source.subSequence(start, end).toString();
+        symbols[slot] = symbol;
+        return symbol;
+    }
+
+    public String intern(String value) {
+        return intern(value, 0, value.length(), value.hashCode());
+    }
+
+    public int capacity() {
+        return symbols.length;
+    }
+
+    public void clear() {
+        Arrays.fill(symbols, null);
+    }
+
+    private static boolean matches(String symbol, CharSequence source, int start, int end) {
+        if (symbol.length() != end - start) return false;
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) != source.charAt(start + i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,147 @@
+package com.googlecode.funclate.json;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+public class Utf8Sink implements Appendable, Flushable {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private final Flushable flushable;
+    private char highSurrogate;
+
+    private Utf8Sink(ByteBuffer buffer, WritableByteChannel channel, Flushable flushable) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.flushable = flushable;
+    }
+
+    public static Utf8Sink utf8Sink(ByteBuffer buffer) {
+        return new Utf8Sink(buffer, null, null);
+    }
+
+    public static Utf8Sink utf8Sink(WritableByteChannel channel) {
+        return utf8Sink(channel, ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
+    }
+
+    public static Utf8Sink utf8Sink(WritableByteChannel channel, ByteBuffer buffer) {
+        buffer.clear();
+        return new Utf8Sink(buffer, channel, null);
+    }
+
+    public static Utf8Sink utf8Sink(OutputStream outputStream) {
+        return utf8Sink(outputStream, ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
+    }
+
+    public static Utf8Sink utf8Sink(OutputStream outputStream, ByteBuffer buffer) {
+        buffer.clear();
+        return new Utf8Sink(buffer, Channels.newChannel(outputStream), outputStream);
+    }
+
+    public Utf8Sink append(CharSequence csq) throws IOException {
+        if (csq == null) return append("null");
+        return append(csq, 0, csq.length());
+    }
+
+    public Utf8Sink append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) return append("null", start, end);
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                if (!buffer.hasRemaining()) drain(1);
+                buffer.put((byte) c);
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    public Utf8Sink append(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) return codePoint(Character.toCodePoint(high, c));
+            unmappable();
+        }
+        if (c < 0x80) {
+            drain(1);
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            drain(2);
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            unmappable();
+        } else {
+            drain(3);
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+
+    public Utf8Sink write(byte[] bytes) throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            unmappable();
+        }
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) drain(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            unmappable();
+        }
+        if (channel == null) return;
+        writeBuffer();
+        if (flushable != null) flushable.flush();
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    private Utf8Sink codePoint(int codePoint) throws IOException {
+        drain(4);
+        buffer.put((byte) (0xF0 | (codePoint >> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        return this;
+    }
+
+    // Same replacement String.getBytes uses for malformed surrogate pairs
+    private void unmappable() throws IOException {
+        drain(1);
+        buffer.put((byte) '?');
+    }
+
+    private void drain(int required) throws IOException {
+        if (buffer.remaining() >= required) return;
+        if (channel == null) throw new BufferOverflowException();
+        writeBuffer();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
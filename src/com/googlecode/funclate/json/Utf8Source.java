@@ -0,0 +1,83 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.LazyException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.String.format;
+
+// Exposes UTF-8 bytes to the parser one byte per char. JSON structure is all ASCII,
+// so only string bodies ever need real decoding and JsonParser does that as it scans them
+public class Utf8Source implements CharSequence {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final ByteBuffer bytes;
+
+    private Utf8Source(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    public static Utf8Source utf8Source(byte[] bytes) {
+        return new Utf8Source(ByteBuffer.wrap(bytes));
+    }
+
+    public static Utf8Source utf8Source(ByteBuffer buffer) {
+        return new Utf8Source(buffer.slice());
+    }
+
+    // A CharSequence is indexed by int, so a single document has to fit in one 2GB mapping
+    public static Utf8Source utf8Source(Path path) {
+        long size = size(path);
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException(format("%s is %d bytes, too large to map as one document", path, size));
+        return utf8Source(path, 0, (int) size);
+    }
+
+    public static Utf8Source utf8Source(Path path, long position, int length) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                return new Utf8Source(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    public int length() {
+        return bytes.limit();
+    }
+
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    public Utf8Source subSequence(int start, int end) {
+        ByteBuffer range = bytes.duplicate();
+        range.limit(end);
+        range.position(start);
+        return new Utf8Source(range.slice());
+    }
+
+    @Override
+    public String toString() {
+        if (bytes.hasArray()) return new String(bytes.array(), bytes.arrayOffset(), bytes.limit(), UTF_8);
+        ByteBuffer all = bytes.duplicate();
+        all.clear();
+        return UTF_8.decode(all).toString();
+    }
+}
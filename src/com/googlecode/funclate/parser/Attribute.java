@@ -1,14 +1,14 @@
 package com.googlecode.funclate.parser;
 
 import com.googlecode.funclate.Funclate;
-import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 import com.googlecode.totallylazy.Value;
 
 import java.util.Map;
 
 import static java.lang.String.format;
 
-public class Attribute implements Value<String>, Renderer<Map<String, Object>> {
+public class Attribute implements Value<String>, StreamingRenderer<Map<String, Object>> {
     private final String value;
     private final Funclate funclate;
 
@@ -21,10 +21,18 @@ public class Attribute implements Value<String>, Renderer<Map<String, Object>> {
         return value;
     }
 
+    Funclate funclate() {
+        return funclate;
+    }
+
     public String render(Map<String, Object> map) throws Exception {
         return funclate.render(map.get(value));
     }
 
+    public <A extends Appendable> A render(Map<String, Object> map, A appendable) throws Exception {
+        return StreamingRenderer.methods.render(funclate, map.get(value), appendable);
+    }
+
     @Override
     public String toString() {
         return value;
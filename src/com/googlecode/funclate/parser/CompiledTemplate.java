@@ -0,0 +1,202 @@
+package com.googlecode.funclate.parser;
+
+import com.googlecode.funclate.Funclate;
+import com.googlecode.funclate.Link;
+import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.Shape;
+import com.googlecode.funclate.Slotted;
+import com.googlecode.funclate.StreamingRenderer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.util.Collections.singletonList;
+
+// An interpreted program rather than generated classes: the runtime dependencies carry no bytecode library and hidden
+// classes need Java 15, so a flat instruction loop is the form every supported JVM can run. Anything code generation
+// adds later should fall back to it
+public class CompiledTemplate implements StreamingRenderer<Map<String, Object>> {
+    private static final byte LITERAL = 0;
+    private static final byte ATTRIBUTE = 1;
+    private static final byte CALL = 2;
+    private static final byte RENDERER = 3;
+    private static final int EXPRESSION_SIZE = 16;
+    private final Object source;
+    private final byte[] instructions;
+    private final Object[] operands;
+    private final int capacity;
+    private volatile boolean linked;
+
+    public CompiledTemplate(Template template) {
+        this(template, template.parts());
+    }
+
+    private CompiledTemplate(Object source, Iterable<? extends Renderer<Map<String, Object>>> parts) {
+        this.source = source;
+        List<Byte> instructions = new ArrayList<Byte>();
+        List<Object> operands = new ArrayList<Object>();
+        int capacity = 0;
+        StringBuilder literal = new StringBuilder();
+        for (Renderer<Map<String, Object>> part : parts) {
+            if (part instanceof Text) {
+                literal.append(((Text) part).value());
+                continue;
+            }
+            if (literal.length() > 0) {
+                instructions.add(LITERAL);
+                operands.add(literal.toString());
+                capacity += literal.length();
+                literal.setLength(0);
+            }
+            if (part instanceof Attribute) {
+                instructions.add(ATTRIBUTE);
+                operands.add(new Lookup((Attribute) part));
+            } else if (part instanceof TemplateCall) {
+                instructions.add(CALL);
+                operands.add(new Call((TemplateCall) part));
+            } else {
+                instructions.add(RENDERER);
+                operands.add(part);
+            }
+            capacity += EXPRESSION_SIZE;
+        }
+        if (literal.length() > 0) {
+            instructions.add(LITERAL);
+            operands.add(literal.toString());
+            capacity += literal.length();
+        }
+        this.instructions = new byte[instructions.size()];
+        for (int i = 0; i < this.instructions.length; i++) this.instructions[i] = instructions.get(i);
+        this.operands = operands.toArray();
+        this.capacity = capacity;
+    }
+
+    public String render(Map<String, Object> map) throws Exception {
+        return render(map, new StringBuilder(capacity)).toString();
+    }
+
+    public <A extends Appendable> A render(Map<String, Object> map, A appendable) throws Exception {
+        if (!linked) link();
+        for (int i = 0; i < instructions.length; i++) {
+            switch (instructions[i]) {
+                case LITERAL:
+                    appendable.append((String) operands[i]);
+                    break;
+                case ATTRIBUTE:
+                    Lookup lookup = (Lookup) operands[i];
+                    StreamingRenderer.methods.render(lookup.funclate, lookup.value(map), appendable);
+                    break;
+                case CALL:
+                    ((Call) operands[i]).render(map, appendable);
+                    break;
+                default:
+                    StreamingRenderer.methods.render((Renderer<Map<String, Object>>) operands[i], map, appendable);
+            }
+        }
+        return appendable;
+    }
+
+    // Resolves every template call up front so missing templates are reported together before anything is written
+    public CompiledTemplate link() {
+        Set<String> unresolved = new LinkedHashSet<String>();
+        RuntimeException cause = link(unresolved);
+        if (cause != null) throw new IllegalStateException(format("Could not resolve template calls %s", unresolved), cause);
+        return this;
+    }
+
+    private RuntimeException link(Set<String> unresolved) {
+        RuntimeException cause = null;
+        for (Object operand : operands) {
+            if (!(operand instanceof Call)) continue;
+            RuntimeException failure = ((Call) operand).link(unresolved);
+            if (cause == null) cause = failure;
+        }
+        if (cause == null) linked = true;
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+
+    private static class Lookup {
+        private final String name;
+        private final Funclate funclate;
+        // A plain field is enough: Slot is immutable, so a thread sees either null, an older slot or a complete new one
+        private Slot slot;
+
+        private Lookup(Attribute attribute) {
+            name = attribute.value();
+            funclate = attribute.funclate();
+        }
+
+        // Remembers the slot for the last shape seen, any other map or shape falls back to a normal lookup
+        private Object value(Map<String, Object> map) {
+            if (!(map instanceof Slotted)) return map.get(name);
+            Slotted slotted = (Slotted) map;
+            Shape shape = slotted.shape();
+            Slot cached = slot;
+            if (cached == null || cached.shape != shape) {
+                cached = new Slot(shape, shape.slot(name));
+                slot = cached;
+            }
+            return cached.index < 0 ? null : slotted.slot(cached.index);
+        }
+    }
+
+    private static class Slot {
+        private final Shape shape;
+        private final int index;
+
+        private Slot(Shape shape, int index) {
+            this.shape = shape;
+            this.index = index;
+        }
+    }
+
+    private static class Call {
+        private final Link target;
+        private final String[] keys;
+        private final CompiledTemplate[] values;
+
+        private Call(TemplateCall call) {
+            target = call.target();
+            Map<String, Renderer<Map<String, Object>>> arguments = call.arguments();
+            keys = new String[arguments.size()];
+            values = new CompiledTemplate[arguments.size()];
+            int index = 0;
+            for (Map.Entry<String, Renderer<Map<String, Object>>> argument : arguments.entrySet()) {
+                keys[index] = argument.getKey();
+                values[index] = new CompiledTemplate(argument.getValue(), singletonList(argument.getValue()));
+                index++;
+            }
+        }
+
+        private RuntimeException link(Set<String> unresolved) {
+            RuntimeException cause = null;
+            try {
+                target.link();
+            } catch (RuntimeException e) {
+                unresolved.add(target.name());
+                cause = e;
+            }
+            for (CompiledTemplate value : values) {
+                RuntimeException failure = value.link(unresolved);
+                if (cause == null) cause = failure;
+            }
+            return cause;
+        }
+
+        private void render(Map<String, Object> context, Appendable appendable) throws Exception {
+            Map<String, String> arguments = new LinkedHashMap<String, String>(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) arguments.put(keys[i], values[i].render(context));
+            target.render(arguments, appendable);
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.googlecode.funclate.parser;
 
 import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 import com.googlecode.totallylazy.Mapper;
 import com.googlecode.totallylazy.Sequence;
-import com.googlecode.totallylazy.Strings;
 import com.googlecode.totallylazy.annotations.multimethod;
 import com.googlecode.totallylazy.multi;
 
@@ -12,7 +12,7 @@ import java.util.Map;
 import static com.googlecode.totallylazy.Callables.toString;
 import static com.googlecode.totallylazy.Sequences.sequence;
 
-public class Template implements Renderer<Map<String, Object>> {
+public class Template implements StreamingRenderer<Map<String, Object>> {
     private final Sequence<Renderer<Map<String, Object>>> objects;
 
     public Template(Iterable<Renderer<Map<String, Object>>> objects) {
@@ -20,7 +20,20 @@ public class Template implements Renderer<Map<String, Object>> {
     }
 
     public String render(final Map<String, Object> map) throws Exception {
-        return objects.map(functions.render(map)).toString(Strings.EMPTY);
+        return render(map, new StringBuilder()).toString();
+    }
+
+    public <A extends Appendable> A render(Map<String, Object> map, A appendable) throws Exception {
+        for (Renderer<Map<String, Object>> object : objects) StreamingRenderer.methods.render(object, map, appendable);
+        return appendable;
+    }
+
+    public CompiledTemplate compile() {
+        return new CompiledTemplate(this);
+    }
+
+    Sequence<Renderer<Map<String, Object>>> parts() {
+        return objects;
     }
 
     @Override
@@ -1,7 +1,9 @@
 package com.googlecode.funclate.parser;
 
 import com.googlecode.funclate.Funclate;
+import com.googlecode.funclate.Link;
 import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 import com.googlecode.totallylazy.Callables;
 import com.googlecode.totallylazy.Mapper;
 import com.googlecode.totallylazy.Maps;
@@ -17,15 +19,15 @@ import static com.googlecode.totallylazy.Maps.pairs;
 import static com.googlecode.totallylazy.Sequences.sequence;
 import static java.lang.String.format;
 
-public class TemplateCall implements Renderer<Map<String, Object>> {
+public class TemplateCall implements StreamingRenderer<Map<String, Object>> {
     private final String name;
     private final Map<String, Renderer<Map<String, Object>>> arguments;
-    private final Funclate funclate;
+    private final Link target;
 
     public TemplateCall(final String name, final Map<String, Renderer<Map<String, Object>>> arguments, final Funclate funclate) {
         this.name = name;
         this.arguments = arguments;
-        this.funclate = funclate;
+        this.target = new Link(funclate, name);
     }
 
     public String name() {
@@ -36,8 +38,16 @@ public class TemplateCall implements Renderer<Map<String, Object>> {
         return arguments;
     }
 
+    Link target() {
+        return target;
+    }
+
     public String render(Map<String, Object> context) throws Exception {
-        return funclate.get(name).render(apply(arguments, context));
+        return target.render(apply(arguments, context));
+    }
+
+    public <A extends Appendable> A render(Map<String, Object> context, A appendable) throws Exception {
+        return target.render(apply(arguments, context), appendable);
     }
 
     private Map<String, String> apply(Map<String, Renderer<Map<String, Object>>> arguments, Map<String, Object> context) {
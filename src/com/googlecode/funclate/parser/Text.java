@@ -1,13 +1,13 @@
 package com.googlecode.funclate.parser;
 
-import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 import com.googlecode.totallylazy.Value;
 
 import java.util.Map;
 
 import static java.lang.String.format;
 
-public class Text implements Value<String>, Renderer<Map<String, Object>> {
+public class Text implements Value<String>, StreamingRenderer<Map<String, Object>> {
     private final String value;
 
     public Text(String value) {
@@ -27,4 +27,9 @@ public class Text implements Value<String>, Renderer<Map<String, Object>> {
     public String render(Map<String, Object> map) throws Exception {
         return value;
     }
+
+    public <A extends Appendable> A render(Map<String, Object> map, A appendable) throws Exception {
+        appendable.append(value);
+        return appendable;
+    }
 }
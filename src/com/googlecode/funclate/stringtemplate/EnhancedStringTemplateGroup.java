@@ -3,24 +3,32 @@ package com.googlecode.funclate.stringtemplate;
 import com.googlecode.funclate.CompositeFunclate;
 import com.googlecode.funclate.Funclate;
 import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.TemplateWatcher;
 import com.googlecode.totallylazy.Callable1;
 import com.googlecode.totallylazy.Predicate;
 import org.antlr.stringtemplate.AttributeRenderer;
 import org.antlr.stringtemplate.StringTemplate;
+import org.antlr.stringtemplate.StringTemplateErrorListener;
 import org.antlr.stringtemplate.StringTemplateGroup;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 import static com.googlecode.funclate.Funclate.methods.addDefaultEncoders;
+import static com.googlecode.funclate.TemplateWatcher.DEFAULT_DEBOUNCE_MILLISECONDS;
+import static com.googlecode.funclate.TemplateWatcher.directory;
 import static com.googlecode.totallylazy.Closeables.using;
 import static com.googlecode.totallylazy.URLs.packageUrl;
 
 public class EnhancedStringTemplateGroup extends StringTemplateGroup {
     private boolean enableFormatsAsFunctions = false;
     private final Funclate funclate;
+    private final URL baseUrl;
 
     public EnhancedStringTemplateGroup(Class classInPackage) {
         this(packageUrl(classInPackage));
@@ -42,6 +50,7 @@ public class EnhancedStringTemplateGroup extends StringTemplateGroup {
     public EnhancedStringTemplateGroup(URL baseUrl, Funclate parent) {
         super(baseUrl.toString(), baseUrl.toString());
         funclate = parent;
+        this.baseUrl = baseUrl;
     }
 
     private static Funclate createFunclates(StringTemplateGroup parent) {
@@ -56,6 +65,67 @@ public class EnhancedStringTemplateGroup extends StringTemplateGroup {
         return this;
     }
 
+    public TemplateWatcher reloadOnChange() {
+        return reloadOnChange(DEFAULT_DEBOUNCE_MILLISECONDS, TimeUnit.MILLISECONDS);
+    }
+
+    public TemplateWatcher reloadOnChange(long debounce, TimeUnit unit) {
+        return TemplateWatcher.watch(directory(baseUrl), ".st", new TemplateWatcher.Reloadable() {
+            public boolean reload(String name) throws Exception {
+                return EnhancedStringTemplateGroup.this.reload(name);
+            }
+        }, debounce, unit);
+    }
+
+    // Swaps the template in under the group lock so lookups see either the old or the new one. Only a deleted file
+    // removes it, a file that cannot be read or parsed keeps the working template and the failure goes to the watcher
+    synchronized boolean reload(String name) throws IOException {
+        if (!templates.containsKey(name)) return false;
+        if (enableFormatsAsFunctions && funclate.contains(name)) return true;
+        InputStream stream;
+        try {
+            stream = new URL(format(getRootDir() + "/" + getFileNameFromTemplateName(name))).openStream();
+        } catch (FileNotFoundException e) {
+            templates.remove(name);
+            return true;
+        }
+        templates.put(name, parse(name, read(stream)));
+        return true;
+    }
+
+    private String read(InputStream stream) throws IOException {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+            String separator = System.getProperty("line.separator");
+            StringBuilder builder = new StringBuilder();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) builder.append(line).append(separator);
+            return builder.toString().trim();
+        } finally {
+            stream.close();
+        }
+    }
+
+    private StringTemplate parse(String name, String text) {
+        if (text.length() == 0) throw new IllegalArgumentException(String.format("No text in template '%s'", name));
+        final RuntimeException[] failure = new RuntimeException[1];
+        StringTemplate template = createStringTemplate();
+        template.setName(name);
+        template.setGroup(this);
+        template.setNativeGroup(this);
+        template.setErrorListener(new StringTemplateErrorListener() {
+            public void error(String message, Throwable cause) {
+                if (failure[0] == null) failure[0] = new IllegalArgumentException(message, cause);
+            }
+
+            public void warning(String message) {
+            }
+        });
+        template.setTemplate(text);
+        if (failure[0] != null) throw failure[0];
+        template.setErrorListener(getErrorListener());
+        return template;
+    }
+
     @Override
     @Deprecated
     public void setSuperGroup(StringTemplateGroup superGroup) {
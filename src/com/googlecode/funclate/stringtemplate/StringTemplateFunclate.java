@@ -4,11 +4,13 @@ import com.googlecode.funclate.CompositeFunclate;
 import com.googlecode.funclate.Model;
 import com.googlecode.funclate.MutableModel;
 import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 import org.antlr.stringtemplate.StringTemplateGroup;
 
 import java.net.URL;
 import java.util.Map;
 
+import static com.googlecode.funclate.AppendableWriter.writer;
 import static com.googlecode.totallylazy.Maps.map;
 import static com.googlecode.totallylazy.Pair.pair;
 import static com.googlecode.totallylazy.URLs.packageUrl;
@@ -33,10 +35,15 @@ public class StringTemplateFunclate extends CompositeFunclate {
     }
 
     public static Renderer<Object> templateRenderer(final StringTemplateGroup group, final String name) {
-        return new Renderer<Object>() {
+        return new StreamingRenderer<Object>() {
             public String render(Object instance) throws Exception {
                 return group.getInstanceOf(name, convertToMap(instance)).toString();
             }
+
+            public <A extends Appendable> A render(Object instance, A appendable) throws Exception {
+                group.getInstanceOf(name, convertToMap(instance)).write(group.getStringTemplateWriter(writer(appendable)));
+                return appendable;
+            }
         };
     }
 
@@ -2,18 +2,29 @@ package com.googlecode.funclate.stringtemplate;
 
 import com.googlecode.funclate.Model;
 import com.googlecode.funclate.MutableModel;
-import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StreamingRenderer;
 import org.antlr.stringtemplate.StringTemplate;
 
+import static com.googlecode.funclate.AppendableWriter.writer;
 import static com.googlecode.totallylazy.Predicates.instanceOf;
 import static com.googlecode.totallylazy.URLs.packageUrl;
 
-public class XmlModelRenderer implements Renderer<Model> {
+public class XmlModelRenderer implements StreamingRenderer<Model> {
     public String render(Model model) {
+        return template(model).toString();
+    }
+
+    public <A extends Appendable> A render(Model model, A appendable) throws Exception {
+        StringTemplate template = template(model);
+        template.write(template.getGroup().getStringTemplateWriter(writer(appendable)));
+        return appendable;
+    }
+
+    private StringTemplate template(Model model) {
         EnhancedStringTemplateGroup group = new EnhancedStringTemplateGroup(packageUrl(getClass()));
         group.registerRenderer(instanceOf(Model.class), new XmlModelRenderer());
         StringTemplate template = group.getInstanceOf("xml");
         template.setAttribute("entries", model.entries());
-        return template.toString();
+        return template;
     }
 }
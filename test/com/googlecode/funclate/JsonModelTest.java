@@ -0,0 +1,108 @@
+package com.googlecode.funclate;
+
+import com.googlecode.funclate.json.Json;
+import com.googlecode.funclate.json.JsonParseException;
+import com.googlecode.funclate.json.NumberDecoding;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.googlecode.funclate.JsonModel.jsonModel;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JsonModelTest {
+    private static final String JSON = "{\"name\":\"Dan\",\"age\":38,\"tags\":[\"a\",\"b\"],\"address\":{\"town\":\"London\",\"lines\":[\"1 Road\"]},\"active\":true,\"none\":null}";
+
+    @Test
+    public void decodesFieldsOnAccess() throws Exception {
+        Model model = jsonModel(JSON);
+
+        assertThat(model.get("name", String.class), is("Dan"));
+        assertThat(model.get("age", BigDecimal.class), is(new BigDecimal("38")));
+        assertThat(model.get("active", Boolean.class), is(true));
+        assertThat(model.get("none"), is(nullValue()));
+        assertThat(model.get("missing"), is(nullValue()));
+        assertThat(model.contains("none"), is(true));
+        assertThat(model.contains("missing"), is(false));
+    }
+
+    @Test
+    public void arraysBehaveLikeRepeatedValues() throws Exception {
+        Model model = jsonModel(JSON);
+
+        assertThat(model.get("tags", String.class), is("a"));
+        assertThat(model.getValues("tags", String.class), hasExactly("a", "b"));
+        assertThat(model.getValues("name", String.class), hasExactly("Dan"));
+        assertThat(model.getValues("missing").isEmpty(), is(true));
+    }
+
+    @Test
+    public void nestedObjectsAreLazyModelsToo() throws Exception {
+        Model address = jsonModel(JSON).get("address", Model.class);
+
+        assertThat(address, instanceOf(JsonModel.class));
+        assertThat(address.get("town", String.class), is("London"));
+        assertThat(address.getValues("lines", String.class), hasExactly("1 Road"));
+    }
+
+    @Test
+    public void matchesEscapedKeys() throws Exception {
+        Model model = jsonModel("{\"a\\u0062\":1,\"quote\\\"d\":\"x\\ny\"}");
+
+        assertThat(model.contains("ab"), is(true));
+        assertThat(model.get("quote\"d", String.class), is("x\ny"));
+    }
+
+    @Test
+    public void laterDuplicateKeysWin() throws Exception {
+        assertThat(jsonModel("{\"a\":1,\"a\":2}").get("a", BigDecimal.class), is(new BigDecimal("2")));
+    }
+
+    @Test
+    public void writesTheOriginalJsonBackOut() throws Exception {
+        String json = "{\"number\":1.50, \"escaped\":\"\\/\"}";
+        Model model = jsonModel(json);
+
+        assertThat(model.toString(), is(json));
+        assertThat(Json.toJson(model), is(json));
+        assertThat(Json.toJson(Model.mutable.model().add("wrapped", model)), is("{\"wrapped\":" + json + "}"));
+    }
+
+    @Test
+    public void convertsToTheSameMapAsParsing() throws Exception {
+        assertThat(jsonModel(JSON).toMap(), is(Model.mutable.parse(JSON).toMap()));
+    }
+
+    @Test
+    public void writesProduceANewModelAndLeaveTheJsonAlone() throws Exception {
+        Model model = jsonModel(JSON);
+        Model updated = model.set("name", "Mat");
+
+        assertThat(updated.get("name", String.class), is("Mat"));
+        assertThat(updated.get("address", Model.class).get("town", String.class), is("London"));
+        assertThat(model.get("name", String.class), is("Dan"));
+    }
+
+    @Test
+    public void supportsANumberDecoding() throws Exception {
+        List<Object> values = jsonModel("{\"n\":[1,2.5]}", NumberDecoding.LONG_OR_DOUBLE).getValues("n");
+
+        assertThat(values.get(0), is((Object) 1L));
+        assertThat(values.get(1), is((Object) 2.5d));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void validatesTheWholeDocumentUpFront() throws Exception {
+        jsonModel("{\"a\":1,\"b\":[1,}");
+    }
+
+    @Test
+    public void ignoresTheSameWhitespaceAsModelParse() throws Exception {
+        assertThat(jsonModel("{\"a\":\f1}").toMap(), is(jsonModel("{\"a\":1}").toMap()));
+    }
+}
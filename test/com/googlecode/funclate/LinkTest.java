@@ -0,0 +1,98 @@
+package com.googlecode.funclate;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.funclate.Model.mutable.model;
+import static com.googlecode.totallylazy.Predicates.always;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class LinkTest {
+    @Test
+    public void resolvesTheTargetOnce() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        CompositeFunclate funclate = new CompositeFunclate() {
+            @Override
+            public Renderer<Object> get(String name) {
+                lookups.incrementAndGet();
+                return super.get(name);
+            }
+        };
+        funclate.add("greet", always(), returns("Hello"));
+        Link link = new Link(funclate, "greet");
+        for (int i = 0; i < 10; i++) assertThat(link.render("Dan"), is("Hello"));
+        assertThat(lookups.get(), is(1));
+    }
+
+    @Test
+    public void resolvesAgainWhenTheRegistryChanges() throws Exception {
+        CompositeFunclate parent = new CompositeFunclate();
+        CompositeFunclate child = new CompositeFunclate(parent);
+        Link link = new Link(child, "greet");
+        assertThat(link.render("Dan"), is("Dan"));
+
+        parent.add("greet", always(), returns("Hello"));
+        assertThat(link.render("Dan"), is("Hello"));
+    }
+
+    @Test
+    public void nestedTemplateCallsSeeReloadedTemplates() throws Exception {
+        File directory = File.createTempFile("funclate", "");
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+        write(directory, "outer", "[$inner()$]");
+        write(directory, "inner", "A");
+        StringFunclates funclates = new StringFunclates(directory.toURI().toURL());
+        assertThat(funclates.get("outer").render(model()), is("[A]"));
+
+        write(directory, "inner", "B");
+        funclates.templates().reload("inner");
+        assertThat(funclates.get("outer").render(model()), is("[B]"));
+    }
+
+    @Test
+    public void reportsUnresolvedTemplateCallsBeforeRendering() throws Exception {
+        File directory = File.createTempFile("funclate", "");
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+        write(directory, "page", "Start $header()$ $footer()$");
+        StringFunclates funclates = new StringFunclates(directory.toURI().toURL());
+        StringBuilder output = new StringBuilder();
+        try {
+            StreamingRenderer.methods.render(funclates.get("page"), model(), output);
+            fail("Expected unresolved template calls");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("header"));
+            assertThat(e.getMessage(), containsString("footer"));
+        }
+        assertThat(output.toString(), is(""));
+    }
+
+    private Renderer<Object> returns(final String value) {
+        return new Renderer<Object>() {
+            public String render(Object instance) throws Exception {
+                return value;
+            }
+        };
+    }
+
+    private void write(File directory, String name, String template) throws IOException {
+        File file = new File(directory, name + ".fun");
+        file.deleteOnExit();
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(template.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.googlecode.funclate;
 
+import com.googlecode.funclate.json.Json;
 import com.googlecode.totallylazy.Arrays;
 import com.googlecode.totallylazy.Maps;
 import com.googlecode.totallylazy.Option;
@@ -475,6 +476,17 @@ abstract public class ModelContract {
         MatcherAssert.assertThat(result, is(original));
     }
 
+    @Test
+    public void parsingJsonGivesTheSameModelAsConvertingTheParsedMap() throws Exception {
+        String json = "{\"name\":\"Dan\",\"tags\":[\"a\",[1,2],{\"nested\":true}],\"address\":{\"lines\":[\"1 Road\",\"Town\"],\"empty\":{}},\"none\":null}";
+
+        Model parsed = parse(json);
+
+        assertThat(parsed, is(fromMap(Json.parse(json))));
+        assertThat(parsed.get("address", Model.class).getValues("lines", String.class), hasExactly("1 Road", "Town"));
+        assertThat(parsed.toString(), is(fromMap(Json.parse(json)).toString()));
+    }
+
     @Test
     public void canConvertFromHierarchicalProperties() throws Exception {
         Properties properties = new Properties();
@@ -0,0 +1,59 @@
+package com.googlecode.funclate;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static com.googlecode.funclate.JsonModel.jsonModel;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ModelMapTest {
+    @Test
+    public void isTheSameAsConvertingTheModelToAMap() throws Exception {
+        Model child = Model.mutable.model().add("name", "Dan");
+        assertSameAsToMap(Model.mutable.model().add("name", "Dan").add("tags", "a").add("tags", "b").add("child", child));
+        assertSameAsToMap(Model.persistent.model().add("name", "Dan").add("tags", "a").add("tags", "b").add("child", Model.persistent.model().add("age", 12)));
+        assertSameAsToMap(jsonModel("{\"name\":\"Dan\",\"tags\":[\"a\",\"b\"],\"child\":{\"age\":12},\"name\":\"Bob\"}"));
+    }
+
+    @Test
+    public void looksUpBySlot() throws Exception {
+        ModelMap map = new ModelMap(Model.mutable.model().add("name", "Dan").add("age", 12));
+        assertThat(map.slot(map.shape().slot("name")), is((Object) "Dan"));
+        assertThat(map.get("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void modelsWithTheSameKeysShareAShape() throws Exception {
+        ModelMap first = new ModelMap(jsonModel("{\"name\":\"Dan\",\"age\":12}"));
+        ModelMap second = new ModelMap(Model.mutable.model().add("name", "Bob").add("age", 40));
+        assertThat(first.shape(), sameInstance(second.shape()));
+    }
+
+    @Test
+    public void modelsKeepTheirShapeUntilTheKeysChange() throws Exception {
+        assertKeepsShape(Model.mutable.model());
+        assertKeepsShape(Model.persistent.model());
+    }
+
+    private static void assertKeepsShape(Model model) {
+        Slotted slotted = (Slotted) model.add("name", "Dan").add("age", 12);
+        Shape shape = slotted.shape();
+        Slotted updated = (Slotted) ((Model) slotted).set("name", "Bob").add("age", 13);
+        assertThat(updated.shape(), sameInstance(shape));
+        assertThat(new ModelMap((Model) updated).shape(), sameInstance(shape));
+        Slotted extended = (Slotted) ((Model) updated).add("email", "bob@example.com");
+        assertThat(extended.shape().size(), is(3));
+        assertThat(extended.slot(extended.shape().slot("email")), is((Object) "bob@example.com"));
+    }
+
+    private static void assertSameAsToMap(Model model) {
+        Map<String, Object> expected = model.toMap();
+        ModelMap map = new ModelMap(model);
+        for (String key : expected.keySet()) assertThat(map.get(key), is(expected.get(key)));
+        assertThat(map, is(expected));
+    }
+}
@@ -0,0 +1,31 @@
+package com.googlecode.funclate;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ShapeTest {
+    @Test
+    public void shapesWithTheSameKeysAreShared() throws Exception {
+        assertThat(Shape.shape("name", "age"), sameInstance(Shape.shape("name", "age")));
+        assertThat(Shape.shape("name", "age"), not(sameInstance(Shape.shape("age", "name"))));
+    }
+
+    @Test
+    public void keepsSharingShapesHoweverManyThereAre() throws Exception {
+        for (int i = 0; i < 10000; i++) Shape.shape("key" + i);
+        assertThat(Shape.shape("name", "age", "email"), sameInstance(Shape.shape("name", "age", "email")));
+    }
+
+    @Test
+    public void findsTheSlotForAKey() throws Exception {
+        Shape shape = Shape.shape("name", "age", "name");
+        assertThat(shape.slot("age"), is(1));
+        assertThat(shape.slot("name"), is(2));
+        assertThat(shape.slot("missing"), is(-1));
+        assertThat(shape.size(), is(3));
+    }
+}
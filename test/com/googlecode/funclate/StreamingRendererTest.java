@@ -0,0 +1,64 @@
+package com.googlecode.funclate;
+
+import com.googlecode.totallylazy.Predicates;
+import com.googlecode.totallylazy.UnaryFunction;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.net.URI;
+
+import static com.googlecode.funclate.Model.mutable.model;
+import static com.googlecode.totallylazy.URLs.packageUrl;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class StreamingRendererTest {
+    @Test
+    public void bridgesStringRenderers() throws Exception {
+        Renderer<Object> renderer = new Renderer<Object>() {
+            public String render(Object instance) throws Exception {
+                return "Hello " + instance;
+            }
+        };
+        StringBuilder builder = new StringBuilder("> ");
+        assertThat(StreamingRenderer.methods.render(renderer, "Dan", builder).toString(), is("> Hello Dan"));
+    }
+
+    @Test
+    public void streamsATemplateIntoAWriter() throws Exception {
+        Funclate parent = new CompositeFunclate().add("greet", Predicates.always(), StringFunclate.functions.first(new UnaryFunction<String>() {
+            @Override
+            public String call(String s) throws Exception {
+                return "Hi " + s;
+            }
+        }));
+        StringFunclate funclate = new StringFunclate("Hello $name$, $greet(name)$!", parent);
+        Model model = model().add("name", "Dan");
+
+        StringWriter writer = new StringWriter();
+        funclate.render(model, writer);
+        assertThat(writer.toString(), is("Hello Dan, Hi Dan!"));
+        assertThat(writer.toString(), is(funclate.render(model)));
+    }
+
+    @Test
+    public void streamsTemplatesLoadedFromAUrl() throws Exception {
+        StringFunclates funclates = new StringFunclates(packageUrl(getClass()));
+        StringBuilder builder = new StringBuilder();
+        StreamingRenderer.methods.render(funclates.get("hello"), model().add("name", "Dan"), builder);
+        assertThat(builder.toString(), is("Hello Dan"));
+    }
+
+    @Test
+    public void streamsLinks() throws Exception {
+        URI uri = URI.create("http://example.com/");
+        assertThat(new LinkRenderer().render(uri, new StringBuilder()).toString(), is(new LinkRenderer().render(uri)));
+    }
+
+    @Test
+    public void writerAppendsToTheUnderlyingAppendable() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        AppendableWriter.writer(builder).append("Hello ").write("xDanx".toCharArray(), 1, 3);
+        assertThat(builder.toString(), is("Hello Dan"));
+    }
+}
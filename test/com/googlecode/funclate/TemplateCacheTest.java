@@ -0,0 +1,110 @@
+package com.googlecode.funclate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.funclate.Model.mutable.model;
+import static com.googlecode.totallylazy.URLs.packageUrl;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class TemplateCacheTest {
+    private File directory;
+    private StringFunclates funclates;
+
+    @Before
+    public void createDirectory() throws Exception {
+        directory = File.createTempFile("funclate", "");
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+        funclates = new StringFunclates(directory.toURI().toURL());
+    }
+
+    @Test
+    public void loadsAndParsesATemplateOnce() throws Exception {
+        write("greeting", "Hello $name$");
+        Renderer<Object> first = funclates.get("greeting");
+        assertThat(funclates.get("greeting"), sameInstance(first));
+        assertThat(first.render(model().add("name", "Dan")), is("Hello Dan"));
+        TemplateCache templates = funclates.templates();
+        assertThat(templates.misses(), is(1L));
+        assertThat(templates.hits(), is(1L));
+        assertThat(templates.size(), is(1));
+        assertThat(templates.loadTime(TimeUnit.NANOSECONDS) + templates.parseTime(TimeUnit.NANOSECONDS), greaterThan(0L));
+    }
+
+    @Test
+    public void cachesMissingTemplatesUntilInvalidated() throws Exception {
+        assertMissing("missing");
+        write("missing", "Found");
+        assertMissing("missing");
+        assertThat(funclates.templates().notFound(), is(1L));
+
+        funclates.templates().invalidate("missing");
+        assertThat(funclates.get("missing").render(model()), is("Found"));
+    }
+
+    @Test
+    public void keepsTheWorkingTemplateWhenAReloadDoesNotParse() throws Exception {
+        write("greeting", "Hello $name$");
+        Renderer<Object> working = funclates.get("greeting");
+        int version = funclates.templates().version();
+        write("greeting", "Hello $name(");
+
+        try {
+            funclates.templates().reload("greeting");
+            fail("Expected the broken template to be reported");
+        } catch (RuntimeException e) {
+            // reported to the caller
+        }
+
+        assertThat(funclates.get("greeting"), sameInstance(working));
+        assertThat(funclates.templates().version(), is(version));
+    }
+
+    @Test
+    public void invalidatingReloadsTheTemplate() throws Exception {
+        write("greeting", "Hello $name$");
+        assertThat(funclates.get("greeting").render(model().add("name", "Dan")), is("Hello Dan"));
+        write("greeting", "Goodbye $name$");
+        assertThat(funclates.get("greeting").render(model().add("name", "Dan")), is("Hello Dan"));
+
+        funclates.templates().clear();
+        assertThat(funclates.get("greeting").render(model().add("name", "Dan")), is("Goodbye Dan"));
+        assertThat(funclates.templates().misses(), is(2L));
+    }
+
+    @Test
+    public void worksWithClasspathTemplates() throws Exception {
+        StringFunclates funclates = new StringFunclates(packageUrl(getClass()));
+        assertThat(funclates.get("hello"), sameInstance(funclates.get("hello")));
+    }
+
+    private void assertMissing(String name) {
+        try {
+            funclates.get(name);
+            fail("Expected " + name + " to be missing");
+        } catch (RuntimeException e) {
+        }
+    }
+
+    private void write(String name, String template) throws IOException {
+        File file = new File(directory, name + ".fun");
+        file.deleteOnExit();
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(template.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.googlecode.funclate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.funclate.Model.mutable.model;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class TemplateWatcherTest {
+    private File directory;
+    private StringFunclates funclates;
+    private TemplateWatcher watcher;
+
+    @Before
+    public void watchDirectory() throws Exception {
+        directory = File.createTempFile("funclate", "");
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+        funclates = new StringFunclates(directory.toURI().toURL());
+        watcher = funclates.reloadOnChange(20, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void stopWatching() throws Exception {
+        watcher.close();
+    }
+
+    @Test
+    public void reloadsChangedTemplates() throws Exception {
+        write("greeting", "Hello $name$");
+        assertThat(render("greeting"), is("Hello Dan"));
+
+        write("greeting", "Goodbye $name$");
+        assertThat(eventually("greeting", "Goodbye Dan"), is("Goodbye Dan"));
+        assertThat(watcher.reloads(), greaterThan(0L));
+        assertThat(watcher.batches(), greaterThan(0L));
+        assertThat(watcher.lastLatency(TimeUnit.NANOSECONDS), greaterThan(0L));
+    }
+
+    @Test
+    public void picksUpTemplatesThatWereMissing() throws Exception {
+        try {
+            render("late");
+        } catch (RuntimeException e) {
+            // not there yet
+        }
+        write("late", "Better late than never");
+        assertThat(eventually("late", "Better late than never"), is("Better late than never"));
+    }
+
+    @Test
+    public void leavesTemplatesThatWereNeverUsedAlone() throws Exception {
+        write("unused", "Unused");
+        write("greeting", "Hello $name$");
+        render("greeting");
+        write("greeting", "Hi $name$");
+        eventually("greeting", "Hi Dan");
+        assertThat(funclates.templates().size(), is(1));
+    }
+
+    @Test
+    public void countsChangesThatDoNotParseAsFailuresAndKeepsTheOldTemplate() throws Exception {
+        write("greeting", "Hello $name$");
+        assertThat(render("greeting"), is("Hello Dan"));
+
+        write("greeting", "Hello $name(");
+        long timeout = System.currentTimeMillis() + 10000;
+        while (watcher.failures() == 0 && System.currentTimeMillis() < timeout) Thread.sleep(10);
+
+        assertThat(watcher.failures(), greaterThan(0L));
+        assertThat(render("greeting"), is("Hello Dan"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyWatchesDirectories() throws Exception {
+        new StringFunclates(new URL("http://localhost/templates/")).reloadOnChange();
+    }
+
+    private String render(String name) throws Exception {
+        return funclates.get(name).render(model().add("name", "Dan"));
+    }
+
+    private String eventually(String name, String expected) throws Exception {
+        long timeout = System.currentTimeMillis() + 10000;
+        String result = null;
+        while (System.currentTimeMillis() < timeout) {
+            try {
+                result = render(name);
+                if (expected.equals(result)) return result;
+            } catch (RuntimeException e) {
+                // still missing
+            }
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    private void write(String name, String template) throws IOException {
+        File file = new File(directory, name + ".fun");
+        file.deleteOnExit();
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(template.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.Model;
+import org.junit.Test;
+
+import static com.googlecode.funclate.Model.persistent.model;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FragmentCacheTest {
+    @Test
+    public void reusesFragmentsOfUnchangedSubtrees() throws Exception {
+        Model users = model().
+                add("user", model().add("name", "Dan")).
+                add("user", model().add("name", "Mat"));
+        Model original = model().add("users", users).add("version", 1);
+        String expected = Json.toJson(original.set("version", 2));
+
+        FragmentCache cache = new FragmentCache();
+        Json.toJson(original, cache);
+        long misses = cache.misses();
+
+        assertThat(Json.toJson(original.set("version", 2), cache), is(expected));
+        assertThat(cache.misses(), is(misses + 1));
+        assertThat(cache.hits(), is(1L));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFragmentsOnceFull() throws Exception {
+        FragmentCache cache = new FragmentCache(10);
+        Object first = new Object();
+        Object second = new Object();
+
+        cache.put(first, "123456");
+        cache.put(second, "123456");
+
+        assertThat(cache.get(first) == null, is(true));
+        assertThat(cache.get(second), is("123456"));
+        assertThat(cache.evictions(), is(1L));
+        assertThat(cache.characters(), is(6L));
+    }
+
+    @Test
+    public void keysAreComparedByIdentity() throws Exception {
+        FragmentCache cache = new FragmentCache();
+        cache.put(model().add("name", "Dan"), "{\"name\":\"Dan\"}");
+
+        assertThat(cache.get(model().add("name", "Dan")) == null, is(true));
+    }
+
+    @Test
+    public void nestedFragmentsShareTheDocumentTheyWereWrittenInto() throws Exception {
+        Model user = model().add("name", "Dan");
+        Model original = model().add("user", user).add("version", 1);
+        FragmentCache cache = new FragmentCache();
+
+        String json = Json.toJson(original, cache);
+
+        assertThat(cache.get(user), is("{\"name\":\"Dan\"}"));
+        assertThat(cache.get(original), is(json));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.characters(), is((long) json.length()));
+    }
+
+    @Test
+    public void clearResetsTheCounters() throws Exception {
+        FragmentCache cache = new FragmentCache();
+        Object value = new Object();
+        cache.put(value, "{}");
+        cache.get(value);
+        cache.get(new Object());
+
+        cache.clear();
+
+        assertThat(cache.hits(), is(0L));
+        assertThat(cache.misses(), is(0L));
+        assertThat(cache.characters(), is(0L));
+    }
+}
@@ -0,0 +1,68 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JsonExtractorTest {
+    private static final String JSON = "{\"body\":[{\"text\":\"}]\\\"{\"},[1,[2]]], \"header\" : {\"type\":\"order\",\"id\":7,\"t\\u0061gs\":[\"x\",{\"y\":null}]}, \"items\":[{\"id\":1},{\"id\":2}]}";
+
+    @Test
+    public void extractsAddressedValues() throws Exception {
+        Map<String, Object> values = Json.extract(JSON, "$.header.type", "header.id", "$.items[1].id");
+
+        assertThat(values.get("$.header.type"), is((Object) "order"));
+        assertThat(values.get("header.id"), is((Object) new BigDecimal(7)));
+        assertThat(values.get("$.items[1].id"), is((Object) new BigDecimal(2)));
+    }
+
+    @Test
+    public void decodesWholeSubtreesAndEscapedKeys() throws Exception {
+        Map<String, Object> values = Json.extract(JSON, "$.header.tags", "$.header.tags[1].y");
+
+        assertThat(values.get("$.header.tags"), is((Object) JsonParser.array("[\"x\",{\"y\":null}]")));
+        assertThat(values.containsKey("$.header.tags[1].y"), is(true));
+        assertThat(values.get("$.header.tags[1].y"), is(nullValue()));
+    }
+
+    @Test
+    public void carriesOnPastADecodedSubtree() throws Exception {
+        Map<String, Object> values = Json.extract(JSON, "$.body", "$.body[1][1]", "$.header.id", "$.items[0].id");
+
+        assertThat(values.get("$.body"), is((Object) JsonParser.array("[{\"text\":\"}]\\\"{\"},[1,[2]]]")));
+        assertThat(values.get("$.body[1][1]"), is((Object) JsonParser.array("[2]")));
+        assertThat(values.get("$.header.id"), is((Object) new BigDecimal(7)));
+        assertThat(values.get("$.items[0].id"), is((Object) new BigDecimal(1)));
+    }
+
+    @Test
+    public void leavesOutPathsThatAreNotPresent() throws Exception {
+        Map<String, Object> values = Json.extract(JSON, "$.header.missing", "$.items[5]", "$.header.type.deeper");
+
+        assertThat(values.isEmpty(), is(true));
+    }
+
+    @Test
+    public void stopsScanningOnceEveryPathIsFound() throws Exception {
+        String truncated = "{\"header\":{\"type\":\"order\"},\"body\":[1,2,";
+
+        assertThat(Json.extract(truncated, "$.header.type").get("$.header.type"), is((Object) "order"));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void reportsMalformedJsonItHasToScan() throws Exception {
+        Json.extract("{\"body\":[1,2,", "$.header.type");
+    }
+
+    @Test
+    public void extractsFromUtf8Bytes() throws Exception {
+        Map<String, Object> values = Json.extract("{\"ключ\":{\"value\":\"λ\"}}".getBytes("UTF-8"), "$.ключ.value");
+
+        assertThat(values.get("$.ключ.value"), is((Object) "λ"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class JsonFeederTest {
+    private static final String JSON = " {\"ключ\":\"λ 𝄞 é\\u00e9\\\"\", \"numbers\":[1,-2.5e3,0,true,false,null,{},[],{\"a\":[{\"b\":[]}]}]} ";
+
+    @Test
+    public void assemblesTheSameValueWhateverTheChunkSize() throws Exception {
+        byte[] bytes = JSON.getBytes("UTF-8");
+        Object expected = JsonParser.value(JSON);
+
+        for (int chunk = 1; chunk <= bytes.length; chunk++) {
+            assertThat(feed(bytes, chunk), is(expected));
+        }
+    }
+
+    @Test
+    public void emitsEventsAsSoonAsTheyAreComplete() throws Exception {
+        final List<String> events = new ArrayList<String>();
+        JsonFeeder feeder = new JsonFeeder(new JsonFeeder.Handler() {
+            public void startObject() { events.add("{"); }
+
+            public void endObject() { events.add("}"); }
+
+            public void startArray() { events.add("["); }
+
+            public void endArray() { events.add("]"); }
+
+            public void key(String key) { events.add(key + ":"); }
+
+            public void value(Object value) { events.add(String.valueOf(value)); }
+        });
+
+        feeder.feed(ByteBuffer.wrap("{\"na".getBytes("UTF-8")));
+        assertThat(events.toString(), is("[{]"));
+        feeder.feed(ByteBuffer.wrap("me\":\"Dan\",\"ids\":[12".getBytes("UTF-8")));
+        assertThat(events.toString(), is("[{, name:, Dan, ids:, []"));
+        feeder.feed(ByteBuffer.wrap("]}".getBytes("UTF-8")));
+        assertThat(events.toString(), is("[{, name:, Dan, ids:, [, 12, ], }]"));
+        assertThat(feeder.complete(), is(true));
+    }
+
+    @Test
+    public void topLevelNumbersCompleteAtTheEndOfInput() throws Exception {
+        JsonFeeder.Assembler assembler = new JsonFeeder.Assembler(JsonParser.maps);
+        JsonFeeder feeder = new JsonFeeder(assembler, NumberDecoding.LONG_OR_DOUBLE).feed(ByteBuffer.wrap("42".getBytes("UTF-8")));
+
+        assertThat(feeder.complete(), is(false));
+        feeder.end();
+        assertThat(assembler.value(), is((Object) 42L));
+    }
+
+    @Test
+    public void reportsErrorsAtTheirAbsoluteOffset() throws Exception {
+        try {
+            feed("{\"a\":[1,2,]}".getBytes("UTF-8"), 3);
+        } catch (JsonParseException e) {
+            assertThat(e.offset(), is(10L));
+            return;
+        }
+        throw new AssertionError("Expected a JsonParseException");
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsTruncatedInput() throws Exception {
+        feed("{\"a\":\"b".getBytes("UTF-8"), 2);
+    }
+
+    private static Object feed(byte[] bytes, int chunk) {
+        JsonFeeder.Assembler assembler = new JsonFeeder.Assembler(JsonParser.maps);
+        JsonFeeder feeder = new JsonFeeder(assembler);
+        for (int i = 0; i < bytes.length; i += chunk) {
+            feeder.feed(ByteBuffer.wrap(bytes, i, Math.min(chunk, bytes.length - i)));
+        }
+        feeder.end();
+        return assembler.value();
+    }
+}
@@ -0,0 +1,136 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.Model;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class JsonLinesTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final JsonLines lines = new JsonLines(Model.persistent.instance, executor, 64, 3, NumberDecoding.LONG_OR_DOUBLE);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void readsModelsInOrderFromAStream() throws Exception {
+        Iterator<Model> models = lines.ordered(new ByteArrayInputStream(records(1000).getBytes("UTF-8")));
+
+        for (long i = 0; i < 1000; i++) {
+            Model model = models.next();
+            assertThat(model.get("id", Long.class), is(i));
+            assertThat(model.get("name", String.class), is("λ" + i));
+        }
+        assertThat(models.hasNext(), is(false));
+    }
+
+    @Test
+    public void readsModelsInOrderFromAFile() throws Exception {
+        Iterator<Model> models = lines.ordered(file(records(1000)).toPath());
+
+        for (long i = 0; i < 1000; i++) {
+            assertThat(models.next().get("id", Long.class), is(i));
+        }
+        assertThat(models.hasNext(), is(false));
+    }
+
+    @Test
+    public void canReadModelsAsTheyComplete() throws Exception {
+        Set<Long> ids = new HashSet<Long>();
+        for (Iterator<Model> models = lines.unordered(file(records(1000)).toPath()); models.hasNext(); ) {
+            ids.add(models.next().get("id", Long.class));
+        }
+
+        assertThat(ids.size(), is(1000));
+    }
+
+    @Test
+    public void skipsBlankLinesAndHandlesLinesLongerThanAChunk() throws Exception {
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 200; i++) longName.append('x');
+        String json = "{\"id\":1}\r\n\n   \n{\"id\":2,\"name\":\"" + longName + "\"}";
+
+        Iterator<Model> models = new JsonLines(Model.mutable.instance, executor).ordered(new ByteArrayInputStream(json.getBytes("UTF-8")));
+
+        assertThat(models.next().get("id", BigDecimal.class), is(new BigDecimal(1)));
+        assertThat(models.next().get("name", String.class), is(longName.toString()));
+        assertThat(models.hasNext(), is(false));
+    }
+
+    @Test
+    public void mapsFileWindowsThatGrowForLinesLongerThanAChunk() throws Exception {
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 200; i++) longName.append('x');
+
+        Iterator<Model> models = lines.ordered(file("{\"id\":1}\n{\"id\":2,\"name\":\"" + longName + "\"}\n{\"id\":3}").toPath());
+
+        assertThat(models.next().get("id", Long.class), is(1L));
+        assertThat(models.next().get("name", String.class), is(longName.toString()));
+        assertThat(models.next().get("id", Long.class), is(3L));
+        assertThat(models.hasNext(), is(false));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void reportsMalformedRecords() throws Exception {
+        Iterator<Model> models = lines.ordered(new ByteArrayInputStream("{\"id\":1}\n{id}\n".getBytes("UTF-8")));
+        while (models.hasNext()) models.next();
+    }
+
+    @Test
+    public void cancelsChunksStillInFlightWhenOneFails() throws Exception {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        Executor runsTwo = new Executor() {
+            public void execute(Runnable command) {
+                queued.add(command);
+                if (queued.size() <= 2) command.run();
+            }
+        };
+        Iterator<Model> models = new JsonLines(Model.mutable.instance, runsTwo, 9, 3, NumberDecoding.BIG_DECIMAL).ordered(new ByteArrayInputStream("{\"id\":1}\n{\"id\":x}\n{\"id\":3}\n".getBytes("UTF-8")));
+        models.next();
+
+        try {
+            models.hasNext();
+        } catch (JsonParseException e) {
+            assertThat(((Future<?>) queued.get(2)).isCancelled(), is(true));
+            return;
+        }
+        fail("Expected the malformed record to be reported");
+    }
+
+    private static String records(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) builder.append("{\"id\":").append(i).append(",\"name\":\"λ").append(i).append("\"}\n");
+        return builder.toString();
+    }
+
+    private static File file(String content) throws Exception {
+        File file = File.createTempFile("funclate", ".ndjson");
+        file.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content.getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,43 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.json.grammar.Grammar;
+
+import static java.lang.String.format;
+
+public class JsonParserBenchmark {
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) throws Exception {
+        String json = document(5000);
+        if (!Grammar.VALUE.parse(json).equals(JsonParser.value(json)))
+            throw new AssertionError("Parsers disagree");
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            timeGrammar(json);
+            timeParser(json);
+        }
+        long grammar = timeGrammar(json);
+        long parser = timeParser(json);
+        System.out.println(format("%dKB document grammar: %6dms parser: %6dms (%.1fx)", json.length() / 1024, grammar, parser, (double) grammar / parser));
+    }
+
+    private static long timeGrammar(String json) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) Grammar.VALUE.parse(json);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static long timeParser(String json) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) JsonParser.value(json);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static String document(int rows) {
+        StringBuilder builder = new StringBuilder("{\"users\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(format("{\"id\":%d,\"name\":\"User \\\"%d\\\"\",\"score\":%d.5,\"active\":%s,\"tags\":[\"a\",\"b\",null]}", i, i, i, i % 2 == 0));
+        }
+        return builder.append("]}").toString();
+    }
+}
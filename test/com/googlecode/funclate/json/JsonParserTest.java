@@ -0,0 +1,99 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.json.grammar.Grammar;
+import com.googlecode.totallylazy.matchers.NumberMatcher;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+public class JsonParserTest {
+    @Test
+    public void canParseStrings() throws Exception {
+        assertThat((String) JsonParser.value("\"Word\""), is("Word"));
+        assertThat((String) JsonParser.value("\"This is some \\\" random string\""), is("This is some \" random string"));
+        assertThat((String) JsonParser.value("\"Text with unicode \\u03BB\""), is("Text with unicode λ"));
+        assertThat((String) JsonParser.value("\"\\\\\\/\\b\\f\\n\\r\\t\""), is("\\/\b\f\n\r\t"));
+    }
+
+    @Test
+    public void parsesNumbersAsBigDecimals() throws Exception {
+        assertThat(JsonParser.value("12"), instanceOf(BigDecimal.class));
+        assertThat((Number) JsonParser.value("12"), NumberMatcher.is(12));
+        assertThat((Number) JsonParser.value("12.1"), NumberMatcher.is(12.1));
+        assertThat((Number) JsonParser.value("-12"), NumberMatcher.is(-12));
+        assertThat((Number) JsonParser.value("1e3"), NumberMatcher.is(1000));
+    }
+
+    @Test
+    public void canParseLiterals() throws Exception {
+        assertThat(JsonParser.value("null"), is(nullValue()));
+        assertThat(JsonParser.value("true"), is((Object) true));
+        assertThat(JsonParser.value("false"), is((Object) false));
+    }
+
+    @Test
+    public void canParseNestedJson() throws Exception {
+        Map<String, Object> map = JsonParser.object(" { \"root\"  : { \"foo\" : [ \"bar\", { \"baz\" : [1, null, true, false, 12.3 ] } ] } }  ");
+        Map root = (Map) map.get("root");
+        List foo = (List) root.get("foo");
+        assertThat(foo.get(0), is((Object) "bar"));
+        List baz = (List) ((Map) foo.get(1)).get("baz");
+        assertThat((Number) baz.get(0), NumberMatcher.is(1));
+        assertThat(baz.get(1), is(nullValue()));
+        assertThat(baz.get(2), is((Object) true));
+        assertThat(baz.get(3), is((Object) false));
+        assertThat((Number) baz.get(4), NumberMatcher.is(12.3));
+    }
+
+    @Test
+    public void canParseEmptyStructures() throws Exception {
+        assertThat(JsonParser.object("{}").isEmpty(), is(true));
+        assertThat(JsonParser.array("[ ]").isEmpty(), is(true));
+    }
+
+    @Test
+    public void agreesWithTheGrammarOnItsCases() throws Exception {
+        for (String json : asList("null", "true", "false", "\"Word\"", "\"This is some \\\" random string\"", "\"Text with unicode \\u03BB\"",
+                "\"\\\"\\\\\\/\\b\\f\\n\\r\\t\"", "12", "12.1", "-12", "[\"foo\"]", "[\"foo\", 123 ]", "[]", "{ \"foo\" : 123 } ",
+                "{\"foo\":123,\"bar\":\"baz\"}", "{}", "[\"foo\",123]",
+                " { \"root\"  : { \"foo\" : [ \"bar\", { \"baz\" : [1, null, true, false, 12.3 ] } ] } }  ")) {
+            assertThat(json, JsonParser.value(json), is(Grammar.VALUE.parse(json)));
+        }
+    }
+
+    @Test
+    public void ignoresTheSameWhitespaceAsTheGrammar() throws Exception {
+        assertThat(JsonParser.array(" \t\r\n[ \t\r\n1 \t\r\n] \t\r\n"), is(JsonParser.array("[1]")));
+        for (String json : new String[]{"[1,\f2]", "[1,\u000B2]", "\u2028[1]"}) {
+            assertThat(JsonParser.value(json), is(Grammar.VALUE.parse(json)));
+            assertThat(JsonParser.array(json).size(), is(json.contains("2") ? 2 : 1));
+        }
+    }
+
+    @Test
+    public void reportsTheOffsetOfErrors() throws Exception {
+        assertFailsAt("{\"foo\" 1}", 7);
+        assertFailsAt("[1,]", 3);
+        assertFailsAt("\"unterminated", 13);
+        assertFailsAt("{} trailing", 3);
+        assertFailsAt("[\"\\x\"]", 3);
+    }
+
+    private void assertFailsAt(String json, int offset) {
+        try {
+            JsonParser.value(json);
+            fail("Expected '" + json + "' to fail");
+        } catch (JsonParseException e) {
+            assertThat(e.offset(), is((long) offset));
+        }
+    }
+}
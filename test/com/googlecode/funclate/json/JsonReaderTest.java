@@ -0,0 +1,106 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.Model;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.funclate.json.JsonReader.Event.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class JsonReaderTest {
+    @Test
+    public void emitsEventsForADocument() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("{\"name\":\"Dan\",\"tags\":[1,true,null]}"), 4);
+        List<JsonReader.Event> events = new ArrayList<JsonReader.Event>();
+        for (JsonReader.Event event = reader.next(); event != END_DOCUMENT; event = reader.next()) events.add(event);
+
+        assertThat(events.toString(), is("[START_OBJECT, KEY, VALUE, KEY, START_ARRAY, VALUE, VALUE, VALUE, END_ARRAY, END_OBJECT]"));
+    }
+
+    @Test
+    public void readsKeysAndValuesAcrossBufferBoundaries() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("{\"a long key\" : \"He said \\\"λ\\\"\"}"), 3);
+        assertThat(reader.next(), is(START_OBJECT));
+        assertThat(reader.next(), is(KEY));
+        assertThat(reader.key(), is("a long key"));
+        assertThat(reader.next(), is(VALUE));
+        assertThat((String) reader.value(), is("He said \"λ\""));
+        assertThat(reader.next(), is(END_OBJECT));
+        assertThat(reader.next(), is(END_DOCUMENT));
+    }
+
+    @Test
+    public void canSkipSubtrees() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("{\"skip\":{\"a\":[\"]}\\\"\",{}]},\"keep\":1}"));
+        reader.next();
+        reader.next();
+        reader.skip();
+        assertThat(reader.next(), is(KEY));
+        assertThat(reader.key(), is("keep"));
+    }
+
+    @Test
+    public void canMaterialiseSelectedSubtrees() throws Exception {
+        JsonReader reader = new JsonReader(new ByteArrayInputStream("[{\"name\":\"Dan\"},{\"name\":\"Mat\"}]".getBytes("UTF-8")));
+        assertThat(reader.next(), is(START_ARRAY));
+        assertThat(reader.next(), is(START_OBJECT));
+        Map<?, ?> dan = (Map<?, ?>) reader.read();
+        assertThat(reader.next(), is(START_OBJECT));
+        Model mat = reader.read(Model.persistent.instance);
+
+        assertThat((String) dan.get("name"), is("Dan"));
+        assertThat(mat.get("name", String.class), is("Mat"));
+        assertThat(reader.next(), is(END_ARRAY));
+    }
+
+    @Test
+    public void readsModelsTheSameWayTheirFactoryParsesThem() throws Exception {
+        String json = "{\"user\":{\"name\":\"Dan\",\"tags\":[\"a\",\"b\"]}}";
+
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.next();
+        assertThat(reader.read(Model.persistent.instance), is(Model.persistent.parse(json)));
+        reader = new JsonReader(new StringReader(json));
+        reader.next();
+        assertThat(reader.read(Model.mutable.instance), is(Model.mutable.parse(json)));
+    }
+
+    @Test
+    public void decodesNumbersTheWayItIsAsked() throws Exception {
+        assertThat(first("[12,2.5]", NumberDecoding.LONG_OR_DOUBLE), is((Object) 12L));
+        assertThat(first("[12,2.5]", NumberDecoding.BIG_DECIMAL), is((Object) new BigDecimal("12")));
+        assertThat(((Number) first("[12,2.5]", NumberDecoding.LAZY)).longValue(), is(12L));
+    }
+
+    @Test
+    public void reportsErrorsAtTheirOffsetInTheWholeStream() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("[1,2,3,]"), 2);
+        try {
+            while (reader.next() != END_DOCUMENT) ;
+            fail("Expected a JsonParseException");
+        } catch (JsonParseException e) {
+            assertThat(e.offset(), is(7L));
+        }
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsTrailingCommas() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("[1,]"));
+        while (reader.next() != END_DOCUMENT) ;
+    }
+
+    private static Object first(String json, NumberDecoding numbers) {
+        JsonReader reader = new JsonReader(new StringReader(json), 2, numbers);
+        reader.next();
+        reader.next();
+        return reader.value();
+    }
+}
@@ -6,11 +6,22 @@ import com.googlecode.totallylazy.Uri;
 import com.googlecode.totallylazy.time.Dates;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.googlecode.funclate.Model.mutable.model;
+import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.time.Dates.date;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
@@ -135,4 +146,70 @@ public class JsonTest {
         Model model = model().add("nullValue", null);
         assertThat(Json.toJson(model), is("{\"nullValue\":null}"));
     }
+
+    @Test
+    public void canWriteUtf8BytesToAnOutputStream() throws Exception {
+        Model model = model().add("text", "first line\n second line λ");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        Json.toJson(model, outputStream);
+
+        assertThat(outputStream.toByteArray(), is(Json.toJson(model).getBytes("UTF-8")));
+    }
+
+    @Test
+    public void canWriteUtf8BytesIntoAByteBuffer() throws Exception {
+        Model model = model().add("text", "λ");
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        Json.toJson(model, buffer).flip();
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertThat(new String(bytes, "UTF-8"), is(Json.toJson(model)));
+    }
+
+    @Test
+    public void parallelSerialisationOfLargeListsMatchesSequential() throws Exception {
+        List<Model> users = new ArrayList<Model>();
+        for (int i = 0; i < 10000; i++) users.add(model().add("id", i).add("name", "user " + i));
+
+        assertThat(Json.toJson(users, 4), is(Json.toJson(users)));
+    }
+
+    @Test
+    public void parallelSerialisationOfLargeMapsMatchesSequential() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < 10000; i++) map.put("key" + i, i);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertThat(Json.toJson(map, executor), is(Json.toJson(map)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelSerialisationFromInsideItsOwnExecutorDoesNotWaitOnQueuedChunks() throws Exception {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < 10000; i++) map.put("key" + i, i);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> json = executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    return Json.toJson(map, executor);
+                }
+            });
+            assertThat(json.get(10, TimeUnit.SECONDS), is(Json.toJson(map)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void smallValuesStayOnTheSequentialPath() throws Exception {
+        assertThat(Json.toJson(sequence(1, 2, 3).toList(), 4), is("[1,2,3]"));
+    }
 }
@@ -0,0 +1,75 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static com.googlecode.funclate.json.Utf8Sink.utf8Sink;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class KeyCacheTest {
+    @Test
+    public void writesEscapedAndQuotedKeysWithTheirSeparator() throws Exception {
+        KeyCache cache = new KeyCache();
+        StringBuilder builder = new StringBuilder();
+
+        cache.write("He said \"λ\"", cache.write("He said \"λ\"", cache.write("He said \"λ\"", builder)));
+
+        assertThat(builder.toString(), is("\"He said \\\"λ\\\"\":\"He said \\\"λ\\\"\":\"He said \\\"λ\\\"\":"));
+        assertThat(cache.misses(), is(2L));
+        assertThat(cache.hits(), is(1L));
+    }
+
+    @Test
+    public void onlyKeepsAKeyOnceItRepeats() throws Exception {
+        KeyCache cache = new KeyCache();
+
+        cache.write("once", new StringBuilder());
+        assertThat(cache.size(), is(0));
+
+        cache.write("once", new StringBuilder());
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void copiesPreEncodedBytesIntoAUtf8Sink() throws Exception {
+        KeyCache cache = new KeyCache();
+        cache.write("λ", cache.write("λ", new StringBuilder()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        cache.write("λ", utf8Sink(outputStream)).flush();
+
+        assertThat(outputStream.toString("UTF-8"), is("\"λ\":"));
+        assertThat(cache.hits(), is(1L));
+    }
+
+    @Test
+    public void evictsAKeyNotUsedSinceItWasCachedOnceFull() throws Exception {
+        KeyCache cache = new KeyCache(2);
+        StringBuilder builder = new StringBuilder();
+
+        for (String key : new String[]{"a", "a", "b", "b", "a", "c", "c"}) cache.write(key, builder);
+
+        assertThat(builder.toString(), is("\"a\":\"a\":\"b\":\"b\":\"a\":\"c\":\"c\":"));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.evictions(), is(1L));
+        cache.write("a", builder);
+        assertThat(cache.hits(), is(2L));
+        cache.write("b", builder);
+        assertThat(cache.misses(), is(7L));
+    }
+
+    @Test
+    public void clearResetsTheCounters() throws Exception {
+        KeyCache cache = new KeyCache(1);
+        StringBuilder builder = new StringBuilder();
+        for (String key : new String[]{"a", "a", "b", "b"}) cache.write(key, builder);
+
+        cache.clear();
+
+        assertThat(cache.size(), is(0));
+        assertThat(cache.misses(), is(0L));
+        assertThat(cache.evictions(), is(0L));
+    }
+}
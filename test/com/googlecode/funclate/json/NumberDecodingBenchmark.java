@@ -0,0 +1,32 @@
+package com.googlecode.funclate.json;
+
+import static java.lang.String.format;
+
+public class NumberDecodingBenchmark {
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) throws Exception {
+        String json = document(100000);
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            for (NumberDecoding numbers : NumberDecoding.values()) time(json, numbers);
+        }
+        for (NumberDecoding numbers : NumberDecoding.values()) {
+            System.out.println(format("%dKB of numbers %-14s %6dms", json.length() / 1024, numbers, time(json, numbers)));
+        }
+    }
+
+    private static long time(String json, NumberDecoding numbers) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) Json.list(json, numbers);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static String document(int size) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(i % 4 == 0 ? String.valueOf(i / 100.0) : String.valueOf(i % 1000));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.funclate.Model;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class NumberDecodingTest {
+    @Test
+    public void defaultsToBigDecimals() throws Exception {
+        assertThat(Json.object("12"), instanceOf(BigDecimal.class));
+        assertThat(Json.object("12", NumberDecoding.BIG_DECIMAL), is((Object) new BigDecimal("12")));
+    }
+
+    @Test
+    public void decodesIntegersAsLongs() throws Exception {
+        assertThat(Json.object("12", NumberDecoding.LONG_OR_DOUBLE), is((Object) 12L));
+        assertThat(Json.object("-0", NumberDecoding.LONG_OR_DOUBLE), is((Object) 0L));
+        assertThat(Json.object("9223372036854775807", NumberDecoding.LONG_OR_DOUBLE), is((Object) Long.MAX_VALUE));
+        assertThat(Json.object("-9223372036854775808", NumberDecoding.LONG_OR_DOUBLE), is((Object) Long.MIN_VALUE));
+    }
+
+    @Test
+    public void keepsIntegersTooBigForALongAsBigDecimals() throws Exception {
+        assertThat(Json.object("9223372036854775808", NumberDecoding.LONG_OR_DOUBLE), is((Object) new BigDecimal("9223372036854775808")));
+    }
+
+    @Test
+    public void decodesFractionsAndExponentsAsDoubles() throws Exception {
+        assertThat(Json.object("12.5", NumberDecoding.LONG_OR_DOUBLE), is((Object) 12.5d));
+        assertThat(Json.object("-0.001", NumberDecoding.LONG_OR_DOUBLE), is((Object) (-0.001d)));
+        assertThat(Json.object("1e3", NumberDecoding.LONG_OR_DOUBLE), is((Object) 1000d));
+        assertThat(Json.object("2.5E-10", NumberDecoding.LONG_OR_DOUBLE), is((Object) 2.5e-10d));
+        assertThat(Json.object("0.30000000000000004", NumberDecoding.LONG_OR_DOUBLE), is((Object) 0.30000000000000004d));
+        assertThat(Json.object("1.7976931348623157e308", NumberDecoding.LONG_OR_DOUBLE), is((Object) Double.MAX_VALUE));
+    }
+
+    @Test
+    public void lazyNumbersKeepTheirSourceText() throws Exception {
+        List<Number> numbers = Json.list("[1.50, 2, -3e2]", NumberDecoding.LAZY);
+
+        assertThat(numbers.get(0), instanceOf(LazyNumber.class));
+        assertThat(numbers.get(0).toString(), is("1.50"));
+        assertThat(numbers.get(0).doubleValue(), is(1.5d));
+        assertThat(numbers.get(1).intValue(), is(2));
+        assertThat(numbers.get(2).longValue(), is(-300L));
+        assertThat(((LazyNumber) numbers.get(0)).toBigDecimal(), is(new BigDecimal("1.50")));
+        assertThat(Json.toJson(numbers), is("[1.50,2,-3e2]"));
+    }
+
+    @Test
+    public void lazyNumbersDecodeOnlyOnce() throws Exception {
+        StringBuilder json = new StringBuilder("12");
+        LazyNumber number = new LazyNumber(json, 0, 2);
+        assertThat(number.longValue(), is(12L));
+
+        json.setCharAt(0, '9');
+
+        assertThat(number.longValue(), is(12L));
+        assertThat(number.doubleValue(), is(12d));
+    }
+
+    @Test
+    public void lazyNumbersAreEqualWhenTheirValuesAre() throws Exception {
+        List<Number> numbers = Json.list("[1.50, 1.5, 1e2, 100, 2]", NumberDecoding.LAZY);
+
+        assertThat(numbers.get(0), is(numbers.get(1)));
+        assertThat(numbers.get(0).hashCode(), is(numbers.get(1).hashCode()));
+        assertThat(numbers.get(2), is(numbers.get(3)));
+        assertThat(numbers.get(2).hashCode(), is(numbers.get(3).hashCode()));
+        assertThat(numbers.get(4), is(not((Object) 2L)));
+    }
+
+    @Test
+    public void modelsCanChooseANumberDecoding() throws Exception {
+        Model mutable = Model.mutable.parse("{\"count\":3}", NumberDecoding.LONG_OR_DOUBLE);
+        Model persistent = Model.persistent.parse("{\"count\":3}", NumberDecoding.LONG_OR_DOUBLE);
+
+        assertThat(mutable.get("count"), is((Object) 3L));
+        assertThat(persistent.get("count"), is((Object) 3L));
+    }
+
+    @Test
+    public void mapsCanChooseANumberDecoding() throws Exception {
+        Map<String, Object> map = Json.parse("{\"ratio\":0.25}", NumberDecoding.LONG_OR_DOUBLE);
+
+        assertThat(map.get("ratio"), is((Object) 0.25d));
+    }
+}
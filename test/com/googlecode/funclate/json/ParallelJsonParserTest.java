@@ -0,0 +1,82 @@
+package com.googlecode.funclate.json;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ParallelJsonParserTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void parsesTheSameListAsTheSequentialParser() throws Exception {
+        String json = elements(5000);
+
+        assertThat(parse(json, 4), is(JsonParser.array(json)));
+        assertThat(Json.<Object>list(json, executor), is(JsonParser.array(json)));
+    }
+
+    @Test
+    public void ignoresSeparatorsInsideStringsAndNestedValues() throws Exception {
+        String json = "[\"a,]\\\"\", {\"b\":[1,2]}, [3,[4]], \"\\\\\", 5]";
+
+        assertThat(parse(json, 8), is(JsonParser.array(json)));
+    }
+
+    @Test
+    public void handlesSmallAndEmptyArrays() throws Exception {
+        assertThat(parse(" [ ] ", 4).isEmpty(), is(true));
+        assertThat(parse("[1]", 4), is(JsonParser.array("[1]")));
+    }
+
+    @Test
+    public void largeDocumentsAreParsedInParallel() throws Exception {
+        String json = elements(50000);
+
+        assertThat(json.length() >= ParallelJsonParser.THRESHOLD, is(true));
+        assertThat(Json.<Object>list(json, 4), is(JsonParser.array(json)));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsTrailingCommas() throws Exception {
+        parse("[1,2,3,]", 4);
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsUnclosedArrays() throws Exception {
+        parse("[1,[2,3]", 4);
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsAnArrayClosedByABrace() throws Exception {
+        parse("[1,2,3}", 4);
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsTrailingContent() throws Exception {
+        parse("[1,2,3] 4", 4);
+    }
+
+    private List<Object> parse(String json, int parallelism) {
+        return (List<Object>) ParallelJsonParser.array(json, JsonParser.maps, NumberDecoding.BIG_DECIMAL, null, executor, parallelism);
+    }
+
+    private static String elements(int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append("{\"id\":").append(i).append(",\"text\":\"a,]}\\\"[{").append(i).append("\",\"values\":[1,2,{\"x\":[]}]}");
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.time.Dates;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Random;
+
+import static com.googlecode.totallylazy.time.Dates.date;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class Rfc3339Test {
+    @Test
+    public void writesTheSameTextAsTheRfc3339DateFormat() throws Exception {
+        assertWritesSameAsDateFormat(date(1977, 1, 10, 23, 5, 33, 123));
+        assertWritesSameAsDateFormat(date(2000, 2, 29, 0, 0, 0, 0));
+        assertWritesSameAsDateFormat(new Date(0));
+        assertWritesSameAsDateFormat(new Date(-1));
+    }
+
+    @Test
+    public void agreesWithTheRfc3339DateFormatAcrossTheGregorianRange() throws Exception {
+        Random random = new Random(3339);
+        for (int i = 0; i < 10000; i++) {
+            long millis = (long) (random.nextDouble() * 253402300799999L * 1.1) - 12219292800000L;
+            assertWritesSameAsDateFormat(new Date(millis));
+        }
+    }
+
+    @Test
+    public void fallsBackToTheDateFormatOutsideFourDigitGregorianYears() throws Exception {
+        assertWritesSameAsDateFormat(new Date(-20000000000000L));
+        assertWritesSameAsDateFormat(new Date(300000000000000L));
+    }
+
+    @Test
+    public void writesTheLocalTimeAtAnOffsetFollowedByTheOffset() throws Exception {
+        long millis = date(2020, 1, 1, 22, 4, 5, 678).getTime();
+
+        assertThat(Rfc3339.toJson(millis, 19800, new StringBuilder()).toString(), is("\"2020-01-02T03:34:05.678+05:30\""));
+        assertThat(Rfc3339.toJson(millis, -3600, new StringBuilder()).toString(), is("\"2020-01-01T21:04:05.678-01:00\""));
+        assertThat(Rfc3339.toJson(millis, 0, new StringBuilder()).toString(), is("\"2020-01-01T22:04:05.678Z\""));
+    }
+
+    @Test
+    public void keepsTheOffsetOfJavaTimeValues() throws Exception {
+        assertThat(Json.toJson(OffsetDateTime.parse("2020-01-02T03:04:05.678+05:30")), is("\"2020-01-02T03:04:05.678+05:30\""));
+        assertThat(Json.toJson(ZonedDateTime.parse("2020-07-01T12:00:00.000+01:00[Europe/London]")), is("\"2020-07-01T12:00:00.000+01:00\""));
+        assertThat(Json.toJson(Instant.parse("2020-01-02T03:04:05.678Z")), is("\"2020-01-02T03:04:05.678Z\""));
+    }
+
+    private void assertWritesSameAsDateFormat(Date date) {
+        String expected = "\"" + Dates.RFC3339withMilliseconds().format(date) + "\"";
+        assertThat(Rfc3339.toJson(date.getTime(), new StringBuilder()).toString(), is(expected));
+    }
+}
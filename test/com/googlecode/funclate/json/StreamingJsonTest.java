@@ -7,6 +7,9 @@ import org.junit.Test;
 
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Map;
 
 import static com.googlecode.funclate.Model.persistent.model;
@@ -79,4 +82,82 @@ public class StreamingJsonTest {
         assertThat(actual, is("{\"one\":1,\"two\":2}"));
         assertThat(actual, is(Json.toJson(values)));
     }
+
+    @Test
+    public void canStreamAModelDirectly() throws Exception {
+        Model model = model().
+                add("users", model().
+                        add("user", model().add("name", "Dan")).
+                        add("user", model().add("name", "Mat")).
+                        add("tags", sequence("a", "b")));
+        Writer writer = new StringWriter();
+
+        StreamingJson.toJson(model, writer);
+
+        String actual = writer.toString();
+        assertThat(actual, is("{\"users\":{\"tags\":[\"a\",\"b\"],\"user\":[{\"name\":\"Dan\"},{\"name\":\"Mat\"}]}}"));
+        assertThat(actual, is(StreamingJson.toJson(model.toMap(), new StringBuilder()).toString()));
+        assertThat(actual, is(StreamingJson.toJson(Model.methods.toMutableModel(model), new StringBuilder()).toString()));
+    }
+
+    @Test
+    public void writesLongRepeatedValuesOldestFirst() throws Exception {
+        Model model = model();
+        for (int i = 0; i < 1000; i++) model = model.add("n", i);
+
+        String actual = StreamingJson.toJson(model, new StringBuilder()).toString();
+
+        assertThat(actual, is(StreamingJson.toJson(model.toMap(), new StringBuilder()).toString()));
+        assertThat(actual.startsWith("{\"n\":[0,1,2,"), is(true));
+    }
+
+    @Test
+    public void keepsTheLastValueOfARepeatedKeyLikeToMap() throws Exception {
+        Model repeated = (Model) Proxy.newProxyInstance(Model.class.getClassLoader(), new Class<?>[]{Model.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("pairs")) return sequence(pair("a", (Object) "1"), pair("b", (Object) "2"), pair("a", (Object) "3"));
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+        String actual = StreamingJson.toJson(repeated, new StringBuilder()).toString();
+
+        assertThat(actual, is("{\"a\":\"3\",\"b\":\"2\"}"));
+        assertThat(actual, is(StreamingJson.toJson(Model.methods.toMap(repeated), new StringBuilder()).toString()));
+    }
+
+    @Test
+    public void aModelNestedInAMapIsWrittenAsItsQuotedToString() throws Exception {
+        Model child = model().add("child", "1");
+        Map<String, Model> values = sortedMap("root", child);
+        Writer writer = new StringWriter();
+
+        StreamingJson.toJson(values, writer);
+
+        assertThat(writer.toString(), is("{\"root\":\"{\\\"child\\\":\\\"1\\\"}\"}"));
+    }
+
+    @Test
+    public void supportsRegisteringWritersForCustomTypes() throws Exception {
+        StreamingJson.register(Point.class, new JsonWriter<Point>() {
+            public void write(Point point, Appendable appendable) throws Exception {
+                appendable.append('[').append(String.valueOf(point.x)).append(',').append(String.valueOf(point.y)).append(']');
+            }
+        });
+        Writer writer = new StringWriter();
+
+        StreamingJson.toJson(sequence(new Point(1, 2), new Point(3, 4)), writer);
+
+        assertThat(writer.toString(), is("[[1,2],[3,4]]"));
+    }
+
+    private static class Point {
+        private final int x;
+        private final int y;
+
+        private Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package com.googlecode.funclate.json;
+
+import com.googlecode.totallylazy.Mapper;
+
+import static com.googlecode.totallylazy.Sequences.characters;
+import static java.lang.String.format;
+
+public class StringsBenchmark {
+    private static final int ITERATIONS = 200000;
+    // The escaper as it was before the lookup table, kept here so the benchmark does not compare the table with itself
+    private static final Mapper<Character, String> legacyEscape = new Mapper<Character, String>() {
+        public String call(Character character) throws Exception {
+            switch (character) {
+                case '"': return "\\\"";
+                case '\\': return "\\\\";
+                case '\b': return "\\b";
+                case '\n': return "\\n";
+                case '\r': return "\\r";
+                case '\t': return "\\t";
+                default: return character.toString();
+            }
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        benchmark("ascii", repeat("The quick brown fox jumps over the lazy dog. ", 4));
+        benchmark("mixed", repeat("Grüße λ \"quoted\" line\n", 8));
+        benchmark("escape heavy", repeat("\"\\\n\t\u0001", 32));
+    }
+
+    private static void benchmark(String name, String value) throws Exception {
+        if (!legacy(value).equals(Strings.toString(value).replace("\\u0001", "\u0001")))
+            throw new AssertionError("Outputs differ for " + name);
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            timeLegacy(value);
+            timeCurrent(value);
+        }
+        long legacy = timeLegacy(value);
+        long current = timeCurrent(value);
+        System.out.println(format("%-13s legacy: %6dms current: %6dms (%.1fx)", name, legacy, current, (double) legacy / current));
+    }
+
+    private static long timeLegacy(String value) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) legacy(value);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static long timeCurrent(String value) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            builder.setLength(0);
+            Strings.toString(value, builder);
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static String legacy(CharSequence value) {
+        return format("\"%s\"", characters(value).map(legacyEscape).toString(""));
+    }
+
+    private static String repeat(String value, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) builder.append(value);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class StringsTest {
+    @Test
+    public void leavesSafeTextUntouched() throws Exception {
+        assertThat(Strings.escape("Hello Dan λ"), is("Hello Dan λ"));
+        assertThat(Strings.escape(""), is(""));
+    }
+
+    @Test
+    public void escapesQuotesAndBackslashes() throws Exception {
+        assertThat(Strings.escape("He said \"Hello\" \\o/"), is("He said \\\"Hello\\\" \\\\o/"));
+    }
+
+    @Test
+    public void escapesControlCharacters() throws Exception {
+        assertThat(Strings.escape("a\b\n\r\tb"), is("a\\b\\n\\r\\tb"));
+        assertThat(Strings.escape("\u0000\f\u001f"), is("\\u0000\\u000c\\u001f"));
+    }
+
+    @Test
+    public void writesQuotedStringsStraightIntoAnAppendable() throws Exception {
+        StringBuilder builder = new StringBuilder("prefix:");
+        Strings.toString("first line\n second \"line\"", builder);
+        assertThat(builder.toString(), is("prefix:\"first line\\n second \\\"line\\\"\""));
+    }
+}
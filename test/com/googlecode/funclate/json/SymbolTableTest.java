@@ -0,0 +1,55 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SymbolTableTest {
+    @Test
+    public void returnsTheSameInstanceForEqualCharacters() throws Exception {
+        SymbolTable table = new SymbolTable();
+        String first = table.intern("{\"name\":1}", 2, 6);
+        String second = table.intern("[\"name\"]", 2, 6);
+
+        assertThat(first, is("name"));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(table.intern(new String("name")), is(sameInstance(first)));
+    }
+
+    @Test
+    public void doesNotInternLongStrings() throws Exception {
+        SymbolTable table = new SymbolTable(16, 4);
+        String first = table.intern(new StringBuilder("abcdef"), 0, 6);
+
+        assertThat(table.intern(new StringBuilder("abcdef"), 0, 6), is(not(sameInstance(first))));
+        assertThat(table.intern("abcd", 0, 4), is(sameInstance(table.intern("abcd", 0, 4))));
+    }
+
+    @Test
+    public void roundsCapacityUpToAPowerOfTwo() throws Exception {
+        assertThat(new SymbolTable(1000).capacity(), is(1024));
+        assertThat(new SymbolTable(1024).capacity(), is(1024));
+    }
+
+    @Test
+    public void parsedKeysAreShared() throws Exception {
+        List<Map<String, Object>> list = Json.list("[{\"name\":\"Dan\"},{\"n\\u0061me\":\"Mat\"}]");
+
+        String first = list.get(0).keySet().iterator().next();
+        String second = list.get(1).keySet().iterator().next();
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    public void canDeduplicateStringValues() throws Exception {
+        Map<String, Object> map = Json.parse("{\"a\":\"same\",\"b\":\"same\"}", NumberDecoding.BIG_DECIMAL, new SymbolTable(64, 16));
+
+        assertThat(map.get("b"), is(sameInstance(map.get("a"))));
+    }
+}
@@ -0,0 +1,38 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static com.googlecode.funclate.json.Utf8Sink.utf8Sink;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class Utf8SinkTest {
+    @Test
+    public void encodesTheSameBytesAsString() throws Exception {
+        String value = "plain λ € 😀 \ud800 end";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        utf8Sink(outputStream).append(value).flush();
+
+        assertThat(outputStream.toByteArray(), is(value.getBytes("UTF-8")));
+    }
+
+    @Test
+    public void flushesWhenTheBufferIsFull() throws Exception {
+        String value = "😀 does not fit in four bytes λ";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        utf8Sink(outputStream, ByteBuffer.allocate(4)).append(value).flush();
+
+        assertThat(outputStream.toString("UTF-8"), is(value));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void aFixedBufferCannotOverflow() throws Exception {
+        utf8Sink(ByteBuffer.allocate(2)).append("abc");
+    }
+}
@@ -0,0 +1,61 @@
+package com.googlecode.funclate.json;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static com.googlecode.funclate.json.Utf8Source.utf8Source;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class Utf8SourceTest {
+    private static final String JSON = "{\"ключ\":\"λ 𝄞 é\",\"ascii\":[1,true,\"x\\u00e9\"],\"mixed\":\"a\\n𝄞\"}";
+
+    @Test
+    public void parsesUtf8Bytes() throws Exception {
+        assertThat(Json.parse(JSON.getBytes("UTF-8")), is(Json.parse(JSON)));
+    }
+
+    @Test
+    public void parsesTheRemainingBytesOfADirectBuffer() throws Exception {
+        byte[] bytes = JSON.getBytes("UTF-8");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 2);
+        buffer.put((byte) 'x').put(bytes).put((byte) 'x').flip();
+        buffer.position(1).limit(bytes.length + 1);
+
+        assertThat(Json.parse(buffer), is(Json.parse(JSON)));
+        assertThat(buffer.position(), is(1));
+    }
+
+    @Test
+    public void parsesAMemoryMappedFile() throws Exception {
+        File file = File.createTempFile("funclate", ".json");
+        file.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(JSON.getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+
+        Map<String, Object> map = Json.parse(file.toPath());
+        assertThat(map, is(Json.parse(JSON)));
+    }
+
+    @Test
+    public void decodesToStringAsUtf8() throws Exception {
+        Utf8Source source = utf8Source("[\"λ\"]".getBytes("UTF-8"));
+
+        assertThat(source.length(), is(6));
+        assertThat(source.toString(), is("[\"λ\"]"));
+        assertThat(source.subSequence(1, 5).toString(), is("\"λ\""));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectsMalformedUtf8() throws Exception {
+        JsonParser.value(utf8Source(new byte[]{'"', (byte) 0xC3, '"'}));
+    }
+}
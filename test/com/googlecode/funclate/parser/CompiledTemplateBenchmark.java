@@ -0,0 +1,55 @@
+package com.googlecode.funclate.parser;
+
+import com.googlecode.funclate.CompositeFunclate;
+import com.googlecode.funclate.Funclate;
+import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StringFunclate;
+import com.googlecode.totallylazy.Callable1;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Predicates.always;
+import static java.lang.String.format;
+
+public class CompiledTemplateBenchmark {
+    private static final int ITERATIONS = 200000;
+
+    public static void main(String[] args) throws Exception {
+        Funclate funclate = new CompositeFunclate().add("greet", always(), StringFunclate.functions.first(new Callable1<String, String>() {
+            public String call(String name) throws Exception {
+                return "Hi " + name;
+            }
+        }));
+        Grammar grammar = new Grammar(funclate);
+        Map<String, Object> map = new HashMap<String, Object>();
+        for (int i = 0; i < 50; i++) map.put("name" + i, "Value " + i);
+
+        benchmark("hello", grammar.parse("Hello $name0$"), map, ITERATIONS);
+        benchmark("large", grammar.parse(large()), map, ITERATIONS / 50);
+    }
+
+    private static void benchmark(String name, Template template, Map<String, Object> map, int iterations) throws Exception {
+        CompiledTemplate compiled = template.compile();
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            time(template, map, iterations);
+            time(compiled, map, iterations);
+        }
+        System.out.println(format("%-6s template %6dms", name, time(template, map, iterations)));
+        System.out.println(format("%-6s compiled %6dms", name, time(compiled, map, iterations)));
+    }
+
+    private static long time(Renderer<Map<String, Object>> renderer, Map<String, Object> map, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) renderer.render(map);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static String large() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            builder.append("<li class=\"item\">$name").append(i).append("$ and $greet(name").append(i).append(")$</li>\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.googlecode.funclate.parser;
+
+import com.googlecode.funclate.CompositeFunclate;
+import com.googlecode.funclate.Funclate;
+import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.StringFunclate;
+import com.googlecode.totallylazy.Callable1;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.googlecode.funclate.Model.mutable.model;
+import static com.googlecode.totallylazy.Predicates.always;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CompiledTemplateTest {
+    private final Funclate funclate = new CompositeFunclate().
+            add("template", always(), new Callable1<Object, String>() {
+                public String call(Object o) throws Exception {
+                    return "Bodart";
+                }
+            }).
+            add("yourLastName", always(), StringFunclate.functions.first(new Callable1<String, String>() {
+                public String call(String arg) throws Exception {
+                    return "Your last name is " + arg;
+                }
+            }));
+    private final Grammar grammar = new Grammar(funclate);
+
+    @Test
+    public void rendersTheSameAsTheParsedTemplate() throws Exception {
+        Template template = grammar.parse("Hello $name$ $template()$ $yourLastName(template())$ $yourLastName(\"Smith\")$ $yourLastName(name)$");
+        Map<String, Object> map = new HashMap<String, Object>() {{
+            put("name", "Dan");
+        }};
+        assertThat(template.compile().render(map), is(template.render(map)));
+        assertThat(template.compile().render(map), is("Hello Dan Bodart Your last name is Bodart Your last name is Smith Your last name is Dan"));
+    }
+
+    @Test
+    public void rendersMissingAttributesTheSameAsTheParsedTemplate() throws Exception {
+        Template template = grammar.parse("Hello $name$!");
+        Map<String, Object> map = new HashMap<String, Object>();
+        assertThat(template.compile().render(map), is(template.render(map)));
+    }
+
+    @Test
+    public void rendersOtherRenderersAsIs() throws Exception {
+        Template template = new Template(Arrays.<Renderer<Map<String, Object>>>asList(new Text("Hello "), new Renderer<Map<String, Object>>() {
+            public String render(Map<String, Object> map) throws Exception {
+                return "World";
+            }
+        }, new Text("!")));
+        assertThat(template.compile().render(new HashMap<String, Object>()), is("Hello World!"));
+    }
+
+    @Test
+    public void rendersPlainText() throws Exception {
+        assertThat(grammar.parse("Just text").compile().render(new HashMap<String, Object>()), is("Just text"));
+        assertThat(grammar.parse("").compile().render(new HashMap<String, Object>()), is(""));
+    }
+
+    @Test
+    public void rendersModelsOfDifferentShapes() throws Exception {
+        CompiledTemplate template = grammar.parse("$name$ is $age$").compile();
+        StringFunclate funclate = new StringFunclate("$name$ is $age$");
+        assertThat(funclate.render(model().add("name", "Dan").add("age", 12)), is("Dan is 12"));
+        assertThat(funclate.render(model().add("age", 40).add("name", "Bob")), is("Bob is 40"));
+        assertThat(funclate.render(model().add("name", "Ann")), is("Ann is "));
+        assertThat(funclate.render(model().add("name", "Dan").add("age", 12)), is("Dan is 12"));
+        assertThat(template.render(new HashMap<String, Object>() {{
+            put("name", "Sue");
+            put("age", 33);
+        }}), is("Sue is 33"));
+    }
+
+    @Test
+    public void supportsToString() throws Exception {
+        String template = "Hello $name$ $template()$ $yourLastName(template())$";
+        assertThat(grammar.parse(template).compile().toString(), is(template));
+    }
+}
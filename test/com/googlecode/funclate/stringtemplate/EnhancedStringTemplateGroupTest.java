@@ -1,6 +1,7 @@
 package com.googlecode.funclate.stringtemplate;
 
 import com.googlecode.funclate.Renderer;
+import com.googlecode.funclate.TemplateWatcher;
 import com.googlecode.funclate.stringtemplate.sharedtemplates.SharedTemplateClass;
 import com.googlecode.totallylazy.Callables;
 import com.googlecode.totallylazy.Strings;
@@ -9,9 +10,13 @@ import org.antlr.stringtemplate.StringTemplate;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static com.googlecode.funclate.LinkRenderer.toLink;
 import static com.googlecode.totallylazy.Predicates.always;
@@ -130,6 +135,84 @@ public class EnhancedStringTemplateGroupTest {
 
     }
 
+    @Test
+    public void reloadsChangedTemplatesWhenWatching() throws Exception {
+        File directory = File.createTempFile("funclate", "");
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+        File file = new File(directory, "greeting.st");
+        file.deleteOnExit();
+        write(file, "Hello $name$");
+        EnhancedStringTemplateGroup group = new EnhancedStringTemplateGroup(directory.toURI().toURL());
+        TemplateWatcher watcher = group.reloadOnChange(20, TimeUnit.MILLISECONDS);
+        try {
+            assertThat(greeting(group), is("Hello Dan"));
+            write(file, "Goodbye $name$");
+            long timeout = System.currentTimeMillis() + 10000;
+            while (!greeting(group).equals("Goodbye Dan") && System.currentTimeMillis() < timeout) Thread.sleep(10);
+            assertThat(greeting(group), is("Goodbye Dan"));
+            assertThat(watcher.reloads(), Matchers.greaterThan(0L));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void keepsTheWorkingTemplateWhenAReloadDoesNotParse() throws Exception {
+        File directory = File.createTempFile("funclate", "");
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+        File file = new File(directory, "greeting.st");
+        file.deleteOnExit();
+        write(file, "Hello $name$");
+        EnhancedStringTemplateGroup group = new EnhancedStringTemplateGroup(directory.toURI().toURL());
+        assertThat(greeting(group), is("Hello Dan"));
+
+        write(file, "Hello $name(");
+        try {
+            group.reload("greeting");
+            fail("Expected the broken template to be reported");
+        } catch (RuntimeException e) {
+            // reported to the caller
+        }
+        assertThat(greeting(group), is("Hello Dan"));
+
+        write(file, "");
+        try {
+            group.reload("greeting");
+            fail("Expected the empty template to be reported");
+        } catch (RuntimeException e) {
+            // reported to the caller
+        }
+        assertThat(greeting(group), is("Hello Dan"));
+
+        file.delete();
+        assertThat(group.reload("greeting"), is(true));
+        try {
+            greeting(group);
+            fail("Expected the deleted template to be missing");
+        } catch (IllegalArgumentException e) {
+            // no longer defined
+        }
+    }
+
+    private String greeting(EnhancedStringTemplateGroup group) {
+        StringTemplate template = group.getInstanceOf("greeting");
+        template.setAttribute("name", "Dan");
+        return template.toString();
+    }
+
+    private void write(File file, String template) throws IOException {
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(template.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+    }
+
     private Renderer<Object> returns(final String value) {
         return new Renderer<Object>() {
             public String render(Object instance) throws Exception {